@@ -0,0 +1,91 @@
+package net.ravendb.demo.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+import net.ravendb.client.documents.BulkInsertOperation;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.indexes.IAbstractIndexCreationTask;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.generator.HospitalGenerator;
+import net.ravendb.demo.index.Doctors_VisitCounts;
+import net.ravendb.demo.index.Patients_List;
+import net.ravendb.demo.index.Patients_Search;
+import net.ravendb.demo.index.Visits_ByDateAndDoctor;
+import net.ravendb.demo.index.Visits_ByPatient;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.presenter.RavenDBDocumentStore;
+
+/**
+ * The generated hospital the benchmarks run against, seed 42, on a database
+ * of its own per number of patients, HospitalBenchmark-100000 for instance,
+ * so the demo data is left alone and a run at one size never measures the
+ * data of another. It is left there so the next run doesn't generate it
+ * again. Call {@link #ensure(int)} first: it points the application store
+ * at the benchmark database before anything else opens it.
+ */
+final class Dataset {
+
+    static final String NAME = "HospitalBenchmark";
+
+    static final long SEED = 42;
+    static final int DOCTORS = 200;
+    static final int CONDITIONS = 100;
+    static final double VISITS = 5;
+
+    private Dataset() {}
+
+    static HospitalGenerator generator(int patients) {
+        return new HospitalGenerator(SEED, patients, DOCTORS, CONDITIONS, VISITS);
+    }
+
+    /**
+     * Generates the whole hospital unless its last patient is already in the
+     * database, then waits for the indexes. Generated documents have fixed
+     * ids, so a run interrupted half way is simply generated again.
+     */
+    static IDocumentStore ensure(int patients) {
+        String database = NAME + "-" + patients;
+        System.setProperty("ravendb.database", database);
+        IDocumentStore store = RavenDBDocumentStore.getStore();
+
+        if (!database.equals(store.getDatabase())) {
+            throw new IllegalStateException("The store was opened on " + store.getDatabase() + " before the benchmark");
+        }
+
+        HospitalGenerator generator = generator(patients);
+
+        try (IDocumentSession session = store.openSession()) {
+            if (session.load(Patient.class, generator.patient(patients - 1).getId()) == null) {
+                generator.storeConfiguration(store);
+
+                try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+                    generator.generate(bulkInsert::store);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        waitForIndexes(store);
+        return store;
+    }
+
+    private static void waitForIndexes(IDocumentStore store) {
+        IAbstractIndexCreationTask[] indexes = {
+                new Patients_List(), new Patients_Search(), new Visits_ByDateAndDoctor(),
+                new Visits_ByPatient(), new Doctors_VisitCounts()
+        };
+
+        try (IDocumentSession session = store.openSession()) {
+            for (IAbstractIndexCreationTask index : indexes) {
+                session.advanced().rawQuery(Object.class, "from index '" + index.getIndexName() + "'")
+                       .waitForNonStaleResults(Duration.ofMinutes(30))
+                       .take(0)
+                       .toList();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package net.ravendb.demo.benchmark;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies in microseconds, counted in buckets less than 1% wide so any
+ * number of samples takes the same memory. Safe to record from many threads.
+ */
+final class LatencyHistogram {
+
+    // 128 buckets per power of two above the first 256 microseconds
+    private static final int LINEAR = 256;
+    private static final int SUB_BUCKETS = 128;
+    private static final int BUCKETS = LINEAR + 40 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    void record(long micros) {
+        counts.incrementAndGet(index(Math.max(0, micros)));
+    }
+
+    long count() {
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * The latency below which the given fraction of the samples fall, 0.99 for the p99.
+     */
+    long percentile(double fraction) {
+        long total = count();
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+
+            if (seen >= rank) {
+                return value(i);
+            }
+        }
+
+        return value(BUCKETS - 1);
+    }
+
+    private static int index(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 7;
+        int index = LINEAR + (shift - 1) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    // the lower bound of the bucket
+    private static long value(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        return (long) ((index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+}
@@ -0,0 +1,197 @@
+package net.ravendb.demo.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.ravendb.client.Parameters;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.operations.DeleteByQueryOperation;
+import net.ravendb.client.documents.queries.IndexQuery;
+import net.ravendb.client.exceptions.ConcurrencyException;
+import net.ravendb.demo.generator.HospitalGenerator;
+
+/**
+ * Simulates receptionists working at the same time against the local server,
+ * without a browser: every user is a thread calling its own presenters as
+ * the views would, see {@link Receptionist}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar net.ravendb.demo.benchmark.LoadDriver users=50 duration=120 [warmup=20] [think=500] [patients=100000]
+ * </pre>
+ *
+ * think is the mean pause between two actions of a user in milliseconds, 0
+ * for a closed loop at full speed. Operations during the warmup aren't
+ * counted. The report gives the throughput, the p50, p99 and p999 latency
+ * and the error and conflict rates of every presenter operation. Visits
+ * added by the run are deleted at the end.
+ */
+public class LoadDriver {
+    private static Logger logger = Logger.getLogger(LoadDriver.class.getSimpleName());
+
+    private static final long REPORT_SECONDS = 10;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile boolean stopped;
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+
+            if (separator < 0) {
+                System.err.println("Usage: LoadDriver [users=50] [duration=120] [warmup=20] [think=500] [patients=100000]");
+                System.exit(1);
+            }
+
+            options.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "120"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "20"));
+        long think = Long.parseLong(options.getOrDefault("think", "500"));
+        int patients = Integer.parseInt(options.getOrDefault("patients", "100000"));
+
+        IDocumentStore store = Dataset.ensure(patients);
+
+        try {
+            new LoadDriver().run(Dataset.generator(patients), patients, users, warmup, duration, think);
+        } finally {
+            deleteVisits(store);
+            store.close();
+        }
+    }
+
+    void run(HospitalGenerator generator, int patients, int users, int warmup, int duration, long think)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+
+        for (int i = 0; i < users; i++) {
+            pool.execute(new Receptionist(this, generator, patients, think, Dataset.SEED + i));
+        }
+
+        logger.info(users + " users started, warming up for " + warmup + " s");
+        TimeUnit.SECONDS.sleep(warmup);
+
+        stats.clear();
+        recording = true;
+        long start = System.nanoTime();
+
+        for (long elapsed = 0; elapsed < duration; elapsed += REPORT_SECONDS) {
+            TimeUnit.SECONDS.sleep(Math.min(REPORT_SECONDS, duration - elapsed));
+            long calls = stats.values().stream().mapToLong(s -> s.latencies.count()).sum();
+            logger.info(String.format("%d s, %.1f operations/s", Math.min(duration, elapsed + REPORT_SECONDS),
+                    calls / seconds(start)));
+        }
+
+        recording = false;
+        double seconds = seconds(start);
+        stopped = true;
+        pool.shutdownNow();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        report(users, seconds);
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Times one presenter call. A conflict or a failure is counted and gives null,
+     * the user carries on as a receptionist would after the notification.
+     */
+    <T> T call(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        Stats operationStats = recording ? stats.computeIfAbsent(operation, name -> new Stats()) : null;
+
+        try {
+            T result = call.get();
+
+            if (operationStats != null) {
+                operationStats.latencies.record((System.nanoTime() - start) / 1000);
+            }
+
+            return result;
+        } catch (ConcurrencyException e) {
+            if (operationStats != null) {
+                operationStats.latencies.record((System.nanoTime() - start) / 1000);
+                operationStats.conflicts.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            if (operationStats != null) {
+                operationStats.latencies.record((System.nanoTime() - start) / 1000);
+                operationStats.errors.incrementAndGet();
+            }
+
+            if (!stopped) {
+                logger.log(Level.FINE, operation + " failed", e);
+            }
+        }
+
+        return null;
+    }
+
+    private void report(int users, double seconds) {
+        StringBuilder report = new StringBuilder(String.format("%n%d users, %.0f s%n", users, seconds));
+        report.append(String.format("%-20s %10s %10s %10s %10s %10s %8s %9s%n",
+                "operation", "count", "ops/s", "p50 ms", "p99 ms", "p999 ms", "errors", "conflicts"));
+
+        long total = 0;
+
+        for (Map.Entry<String, Stats> entry : new TreeMap<>(stats).entrySet()) {
+            LatencyHistogram latencies = entry.getValue().latencies;
+            long count = latencies.count();
+            total += count;
+
+            report.append(String.format("%-20s %10d %10.1f %10.1f %10.1f %10.1f %7.2f%% %8.2f%%%n",
+                    entry.getKey(), count, count / seconds,
+                    latencies.percentile(0.5) / 1000.0,
+                    latencies.percentile(0.99) / 1000.0,
+                    latencies.percentile(0.999) / 1000.0,
+                    percent(entry.getValue().errors.get(), count),
+                    percent(entry.getValue().conflicts.get(), count)));
+        }
+
+        report.append(String.format("%-20s %10d %10.1f%n", "all", total, total / seconds));
+        System.out.println(report);
+    }
+
+    private static void deleteVisits(IDocumentStore store) {
+        // by id prefix: a collection query, without an index to create
+        IndexQuery visits = new IndexQuery("from Visits where startsWith(id(), $prefix)");
+        Parameters parameters = new Parameters();
+        parameters.put("prefix", Receptionist.VISIT_ID_PREFIX);
+        visits.setQueryParameters(parameters);
+
+        store.operations().sendAsync(new DeleteByQueryOperation(visits)).waitForCompletion();
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static double percent(long part, long count) {
+        return count == 0 ? 0 : part * 100.0 / count;
+    }
+
+    private static final class Stats {
+
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong conflicts = new AtomicLong();
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package net.ravendb.demo.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.ravendb.client.extensions.JsonExtensions;
+import net.ravendb.demo.generator.HospitalGenerator;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+
+/**
+ * Jackson mapping of a patient with the mapper the client stores documents
+ * with, by number of embedded visits: the shape of the patients
+ * VisitsMigration hasn't split yet. No server needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientMappingBenchmark {
+
+    @Param({ "0", "10", "100", "1000" })
+    public int visits;
+
+    private ObjectMapper mapper;
+    private Patient patient;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = JsonExtensions.getDefaultEntityMapper();
+        HospitalGenerator generator = Dataset.generator(1);
+        patient = generator.patient(0);
+
+        List<Visit> history = new ArrayList<>();
+
+        for (int i = 0; history.size() < visits; i++) {
+            history.addAll(generator.visits(i));
+        }
+
+        patient.setVisits(new ArrayList<>(history.subList(0, visits)));
+        json = mapper.writeValueAsBytes(patient);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(patient);
+    }
+
+    @Benchmark
+    public Patient deserialize() throws IOException {
+        return mapper.readValue(json, Patient.class);
+    }
+
+}
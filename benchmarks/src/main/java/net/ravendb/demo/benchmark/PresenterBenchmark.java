@@ -0,0 +1,252 @@
+package net.ravendb.demo.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ravendb.client.Parameters;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.operations.DeleteByQueryOperation;
+import net.ravendb.client.documents.queries.IndexQuery;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.model.Condition;
+import net.ravendb.demo.model.Doctor;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+import net.ravendb.demo.model.asset.Address;
+import net.ravendb.demo.presenter.ConditionPresenter;
+import net.ravendb.demo.presenter.DoctorPresenter;
+import net.ravendb.demo.presenter.PatientPresenter;
+import net.ravendb.demo.presenter.PatientVisitPresenter;
+import net.ravendb.demo.presenter.VisitsPresenter;
+import net.ravendb.demo.web.AvatarRequestHandler;
+
+/**
+ * One benchmark per screen operation of the presenters, against the local
+ * RavenDB server of the demo and the generated hospital of {@link Dataset}.
+ * Each operation opens its own session, as it does behind the views.
+ *
+ * Visits are appended to a patient of their own, deleted after the run.
+ * The department, location and region lists aren't measured: they come from
+ * ConfigurationCache, without a request once it is loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PresenterBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final String PATIENT_ID = "patients/benchmark";
+
+    // -p patients=1000000 for the searches at a million patients, see the README
+    @Param("100000")
+    public int patients;
+
+    private IDocumentStore store;
+    private PatientPresenter patientPresenter;
+    private PatientVisitPresenter patientVisitPresenter;
+    private VisitsPresenter visitsPresenter;
+    private DoctorPresenter doctorPresenter;
+    private ConditionPresenter conditionPresenter;
+    private String historyId;
+    private Doctor doctor;
+    private Condition condition;
+    private Patient editedPatient;
+    private long edits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = Dataset.ensure(patients);
+
+        patientPresenter = new PatientPresenter();
+        patientVisitPresenter = new PatientVisitPresenter();
+        visitsPresenter = new VisitsPresenter();
+        doctorPresenter = new DoctorPresenter();
+        conditionPresenter = new ConditionPresenter();
+
+        // the first patient with a history of the usual length
+        int i = 0;
+        while (Dataset.generator(patients).visits(i).size() < Dataset.VISITS) {
+            i++;
+        }
+        historyId = Dataset.generator(patients).patient(i).getId();
+        doctor = Dataset.generator(patients).doctor(0);
+        condition = Dataset.generator(patients).condition(0);
+
+        try (IDocumentSession session = store.openSession()) {
+            Patient patient = new Patient();
+            patient.setFirstName("Benchmark");
+            patient.setLastName("Patient");
+            session.store(patient, PATIENT_ID);
+
+            byte[] thumbnail = new byte[8 * 1024];
+            new Random(Dataset.SEED).nextBytes(thumbnail);
+            session.advanced().attachments().store(PATIENT_ID, PatientPresenter.THUMBNAIL_NAME,
+                    new ByteArrayInputStream(thumbnail), "image/jpeg");
+            session.saveChanges();
+        }
+
+        // loaded as the editor does, the presenter knows its change vector from then on
+        editedPatient = patientPresenter.getPatientById(PATIENT_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        IndexQuery visits = new IndexQuery("from Visits where patientId = $patientId");
+        Parameters parameters = new Parameters();
+        parameters.put("patientId", PATIENT_ID);
+        visits.setQueryParameters(parameters);
+        store.operations().sendAsync(new DeleteByQueryOperation(visits)).waitForCompletion();
+
+        try (IDocumentSession session = store.openSession()) {
+            session.delete(PATIENT_ID);
+            session.saveChanges();
+        }
+    }
+
+    @Benchmark
+    public Object patientsFirstPage() {
+        return patientPresenter.getPatientsList(0, PAGE_SIZE, null, false);
+    }
+
+    @Benchmark
+    public Object patientsMiddlePage() {
+        return patientPresenter.getPatientsList(patients / 2, PAGE_SIZE, null, false);
+    }
+
+    /**
+     * A prefix matching many patients, a whole name and a first name with the
+     * start of a last name, as typed in the search box.
+     */
+    @State(Scope.Benchmark)
+    public static class Search {
+
+        @Param({"jo", "john", "john smi"})
+        public String term;
+
+    }
+
+    @Benchmark
+    public Object searchPatients(Search search) {
+        return patientPresenter.searchPatientsList(0, PAGE_SIZE, null, search.term, false);
+    }
+
+    @Benchmark
+    public Object patientForEditor() {
+        return patientPresenter.getPatientById(historyId);
+    }
+
+    /**
+     * What the avatar handler does for one row of the patients grid, without the HTTP exchange.
+     */
+    @Benchmark
+    public long profilePicture() throws IOException {
+        try (IDocumentSession session = store.openSession()) {
+            AvatarRequestHandler.Avatar avatar = AvatarRequestHandler.findAvatar(session, PATIENT_ID);
+            CountingOutputStream out = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+            AvatarRequestHandler.copyAvatar(session, PATIENT_ID, avatar, out);
+            return out.getByteCount();
+        }
+    }
+
+    /**
+     * The patient editor saving a change, without a new picture.
+     */
+    @Benchmark
+    public void updatePatient() {
+        editedPatient.setEmail("benchmark" + edits++ + "@example.com");
+        patientPresenter.update(editedPatient, null);
+    }
+
+    @Benchmark
+    public void saveAddress() {
+        Address address = new Address();
+        address.setLine("Benchmark street " + edits++);
+        patientPresenter.saveAddress(PATIENT_ID, address);
+    }
+
+    @Benchmark
+    public Object patientVisits() {
+        return patientVisitPresenter.getPatientWithVisits(historyId, null, true);
+    }
+
+    @Benchmark
+    public Object visitEditorOptions() {
+        return patientVisitPresenter.getDoctorsAndConditions(PAGE_SIZE);
+    }
+
+    /**
+     * The doctor combo box of the visit editor as a name is typed.
+     */
+    @Benchmark
+    public Object doctorsByPrefix() {
+        return patientVisitPresenter.getDoctorsList("Dr. J", PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Object conditionForVisit() {
+        return patientVisitPresenter.getConditionById(condition.getId());
+    }
+
+    /**
+     * Includes waiting for the history index, as the editor does before reloading.
+     */
+    @Benchmark
+    public void appendVisit() {
+        Visit visit = new Visit();
+        visit.setDate(new Date());
+        visit.setDoctorId(doctor.getId());
+        visit.setDoctorName(doctor.getName());
+        visit.setType("Outpatient Clinic");
+        visit.setvisitSummary("Benchmark");
+
+        patientVisitPresenter.save(PATIENT_ID, visit);
+    }
+
+    @Benchmark
+    public Object visitsFirstPage() {
+        return visitsPresenter.getVisitsList(0, PAGE_SIZE, null, true);
+    }
+
+    @Benchmark
+    public Object searchVisits() {
+        return visitsPresenter.searchVisitsList(0, PAGE_SIZE, null, "Dr. J", true);
+    }
+
+    @Benchmark
+    public Object doctorsScreen() {
+        return doctorPresenter.getDoctorsWithVisits();
+    }
+
+    @Benchmark
+    public Object doctorsList() {
+        return doctorPresenter.getDoctorsList();
+    }
+
+    @Benchmark
+    public Object conditionsFirstPage() {
+        return conditionPresenter.getConditionsList(0, PAGE_SIZE, null, null);
+    }
+
+}
@@ -0,0 +1,196 @@
+package net.ravendb.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import net.ravendb.demo.generator.HospitalGenerator;
+import net.ravendb.demo.model.DTO.PageCursor;
+import net.ravendb.demo.model.DTO.PatientListItem;
+import net.ravendb.demo.model.Condition;
+import net.ravendb.demo.model.Doctor;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+import net.ravendb.demo.presenter.ConditionPresenter;
+import net.ravendb.demo.presenter.DoctorPresenter;
+import net.ravendb.demo.presenter.PatientPresenter;
+import net.ravendb.demo.presenter.PatientVisitPresenter;
+import net.ravendb.demo.presenter.VisitsPresenter;
+
+/**
+ * One simulated user with presenters of its own, as a browser tab has.
+ * Each round is a patient at the desk: browse the patients, type the name
+ * in the search box, open the visit history and sometimes add a visit or
+ * edit the patient. Now and then the other screens are opened too.
+ *
+ * A few patients are much busier than the rest so that edits collide.
+ */
+final class Receptionist implements Runnable {
+
+    private static final String VISIT_SUMMARY = "Load test";
+    // every visit added by the run has its id under this prefix, for LoadDriver to delete
+    static final String VISIT_ID_PREFIX = "visits/load-";
+
+    private static final int PAGE_SIZE = 10;
+    private static final int HOT_PATIENTS = 20;
+
+    private final LoadDriver driver;
+    private final HospitalGenerator generator;
+    private final int patients;
+    private final long thinkMillis;
+    private final Random random;
+    private final String visitIdPrefix;
+    private int visits;
+
+    private final PatientPresenter patientPresenter = new PatientPresenter();
+    private final PatientVisitPresenter patientVisitPresenter = new PatientVisitPresenter();
+    private final VisitsPresenter visitsPresenter = new VisitsPresenter();
+    private final DoctorPresenter doctorPresenter = new DoctorPresenter();
+    private final ConditionPresenter conditionPresenter = new ConditionPresenter();
+
+    Receptionist(LoadDriver driver, HospitalGenerator generator, int patients, long thinkMillis, long seed) {
+        this.driver = driver;
+        this.generator = generator;
+        this.patients = patients;
+        this.thinkMillis = thinkMillis;
+        this.random = new Random(seed);
+        this.visitIdPrefix = VISIT_ID_PREFIX + seed + "-";
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!driver.isStopped()) {
+                round();
+            }
+        } catch (InterruptedException e) {
+            // stopped while thinking
+        }
+    }
+
+    private void round() throws InterruptedException {
+        browsePatients();
+
+        Patient patient = generator.patient(random.nextInt(10) < 2
+                                            ? random.nextInt(Math.min(HOT_PATIENTS, patients))
+                                            : random.nextInt(patients));
+        searchPatient(patient);
+
+        call("patientVisits", () -> patientVisitPresenter.getPatientWithVisits(patient.getId(), null, true));
+        think();
+
+        if (random.nextInt(10) < 3) {
+            addVisit(patient);
+        }
+
+        if (random.nextInt(10) < 1) {
+            editPatient(patient);
+        }
+
+        if (random.nextInt(10) < 1) {
+            call("visitsPage", () -> visitsPresenter.getVisitsList(0, PAGE_SIZE, null, true));
+            think();
+        }
+
+        if (random.nextInt(10) < 1) {
+            call("doctorsScreen", doctorPresenter::getDoctorsWithVisits);
+            think();
+        }
+
+        if (random.nextInt(20) < 1) {
+            call("conditionsPage", () -> conditionPresenter.getConditionsList(0, PAGE_SIZE, null, null));
+            think();
+        }
+    }
+
+    private void browsePatients() throws InterruptedException {
+        Pair<Collection<PatientListItem>, Integer> page =
+                call("patientsPage", () -> patientPresenter.getPatientsList(0, PAGE_SIZE, null, false));
+        think();
+
+        int offset = 0;
+        int pages = random.nextInt(3);
+
+        for (int i = 0; i < pages && page != null && !page.getLeft().isEmpty(); i++) {
+            List<PatientListItem> rows = new ArrayList<>(page.getLeft());
+            PageCursor cursor = PageCursor.next(rows, PatientListItem::getLastName, PatientListItem::getId);
+            offset += rows.size();
+
+            int pageOffset = offset;
+            page = call("patientsNextPage", () -> patientPresenter.getPatientsList(pageOffset, PAGE_SIZE, cursor, false));
+            think();
+        }
+    }
+
+    // the search box queries after each pause in typing, from the second letter
+    private void searchPatient(Patient patient) throws InterruptedException {
+        String name = patient.getLastName().toLowerCase();
+        int typed = 2 + random.nextInt(Math.max(1, name.length() - 1));
+
+        for (int length = 2; length <= Math.min(typed, name.length()); length += 1 + random.nextInt(2)) {
+            String term = name.substring(0, length);
+            call("searchPatients", () -> patientPresenter.searchPatientsList(0, PAGE_SIZE, null, term, false));
+            think();
+        }
+    }
+
+    private void addVisit(Patient patient) throws InterruptedException {
+        Pair<Collection<Doctor>, Collection<Condition>> options =
+                call("visitEditorOptions", () -> patientVisitPresenter.getDoctorsAndConditions(PAGE_SIZE));
+        think();
+
+        if (options == null || options.getLeft().isEmpty()) {
+            return;
+        }
+
+        List<Doctor> doctors = new ArrayList<>(options.getLeft());
+        Doctor doctor = doctors.get(random.nextInt(doctors.size()));
+
+        Visit visit = new Visit();
+        visit.setId(visitIdPrefix + visits++);
+        visit.setDate(new Date());
+        visit.setDoctorId(doctor.getId());
+        visit.setDoctorName(doctor.getName());
+        visit.setType("Outpatient Clinic");
+        visit.setvisitSummary(VISIT_SUMMARY);
+
+        call("addVisit", () -> {
+            patientVisitPresenter.save(patient.getId(), visit);
+            return null;
+        });
+        think();
+    }
+
+    // saved unchanged: the point is the concurrency check against the other users
+    private void editPatient(Patient generated) throws InterruptedException {
+        Patient patient = call("patientForEditor", () -> patientPresenter.getPatientById(generated.getId()));
+        think();
+
+        if (patient == null) {
+            return;
+        }
+
+        call("updatePatient", () -> {
+            patientPresenter.update(patient, null);
+            return null;
+        });
+        think();
+    }
+
+    private <T> T call(String operation, Supplier<T> call) {
+        return driver.call(operation, call);
+    }
+
+    private void think() throws InterruptedException {
+        if (thinkMillis > 0) {
+            // exponential pauses, most short and a few long
+            Thread.sleep((long) (-Math.log(1 - random.nextDouble()) * thinkMillis));
+        }
+    }
+
+}
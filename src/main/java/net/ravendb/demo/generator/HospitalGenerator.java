@@ -0,0 +1,366 @@
+package net.ravendb.demo.generator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.ravendb.client.documents.BulkInsertOperation;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.client.extensions.JsonExtensions;
+import net.ravendb.demo.model.Condition;
+import net.ravendb.demo.model.Doctor;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+import net.ravendb.demo.model.asset.Address;
+import net.ravendb.demo.model.asset.Configuration;
+import net.ravendb.demo.model.asset.Gender;
+import net.ravendb.demo.presenter.ConfigurationCache;
+import net.ravendb.demo.presenter.RavenDBDocumentStore;
+
+/**
+ * Generates a synthetic hospital of any size, for benchmarks and load tests:
+ *
+ * <pre>
+ * HospitalGenerator seed=42 patients=10000000 doctors=500 conditions=200 visits=5 [out=dir]
+ * </pre>
+ *
+ * The same seed always gives the same documents, whatever the sizes or the
+ * date: every entity draws from a random of its own, seeded from the seed and
+ * its position, and dates are relative to a fixed day. Names follow their
+ * frequency in the population, so a few prefixes match many patients as they
+ * would in search. The number of visits per patient has a long tail around
+ * the given mean, and a few doctors see most of the patients.
+ *
+ * Documents are written through a bulk insert, or with out=dir to NDJSON
+ * files that BulkImport reads back.
+ */
+public class HospitalGenerator {
+    private static Logger logger = Logger.getLogger(HospitalGenerator.class.getSimpleName());
+
+    private static final long REPORT_MILLIS = 5000;
+    private static final LocalDate TODAY = LocalDate.of(2020, 1, 1);
+    private static final int MAX_VISITS = 500;
+    // Pareto shape of the visits per patient, lower is a longer tail
+    private static final double VISITS_SHAPE = 1.5;
+
+    private static final int DOCTORS = 0, CONDITIONS = 1, PATIENTS = 2, VISITS = 3;
+
+    // most frequent first
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+            "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Christopher", "Nancy", "Daniel", "Lisa", "Matthew", "Betty", "Anthony", "Margaret", "Mark", "Sandra",
+            "Donald", "Ashley", "Steven", "Kimberly", "Paul", "Emily", "Andrew", "Donna", "Joshua", "Michelle"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores"
+    };
+    private static final String[] CITIES = {
+            "Springfield", "Riverside", "Franklin", "Greenville", "Bristol", "Clinton", "Fairview", "Salem",
+            "Madison", "Georgetown", "Arlington", "Ashland", "Dover", "Oxford", "Jackson", "Burlington"
+    };
+    private static final String[] STREETS = {
+            "Main Street", "Oak Avenue", "Pine Road", "Maple Drive", "Cedar Lane", "Elm Street", "Park Avenue",
+            "Lake Road", "Hill Street", "Church Street"
+    };
+    private static final String[] REGIONS = { "North", "South", "East", "West", "Central" };
+    private static final String[] DEPARTMENTS = {
+            "Cardiology", "Dermatology", "Emergency", "Gastroenterology", "Neurology", "Oncology", "Orthopedics",
+            "Pediatrics", "Psychiatry", "Radiology", "Surgery", "Urology"
+    };
+    private static final String[] LOCATIONS = { "Emergency Room", "Outpatient Clinic", "Ward", "Intensive Care", "Home Visit" };
+    private static final String[] CONDITION_NAMES = {
+            "Hypertension", "Diabetes", "Asthma", "Migraine", "Influenza", "Bronchitis", "Arthritis", "Anemia",
+            "Pneumonia", "Gastritis", "Dermatitis", "Sinusitis", "Allergy", "Fracture", "Concussion", "Depression"
+    };
+    private static final String[] TREATMENTS = { "Rest", "Medication", "Physiotherapy", "Surgery", "Diet", "Observation" };
+    private static final String[] SUMMARIES = {
+            "Routine check-up", "Follow-up on treatment", "Prescription renewed", "Referred to a specialist",
+            "Test results discussed", "Symptoms improving", "Admitted for observation", "Discharged"
+    };
+
+    private final long seed;
+    private final int patients;
+    private final double visitsPerPatient;
+    private final Doctor[] doctors;
+    private final int conditions;
+
+    public HospitalGenerator(long seed, int patients, int doctors, int conditions, double visitsPerPatient) {
+        this.seed = seed;
+        this.patients = patients;
+        this.conditions = conditions;
+        this.visitsPerPatient = visitsPerPatient;
+        // visits carry the name of their doctor
+        this.doctors = new Doctor[doctors];
+
+        for (int i = 0; i < doctors; i++) {
+            this.doctors[i] = createDoctor(i);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+
+            if (separator < 0) {
+                System.err.println("Usage: HospitalGenerator [seed=42] [patients=100000] [doctors=200] "
+                                   + "[conditions=100] [visits=5] [out=dir]");
+                System.exit(1);
+            }
+
+            options.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+
+        HospitalGenerator generator = new HospitalGenerator(
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("patients", "100000")),
+                Integer.parseInt(options.getOrDefault("doctors", "200")),
+                Integer.parseInt(options.getOrDefault("conditions", "100")),
+                Double.parseDouble(options.getOrDefault("visits", "5")));
+
+        if (options.containsKey("out")) {
+            // no server needed, the files are written with the mapper the client stores documents with
+            try (NdjsonSink sink = new NdjsonSink(Paths.get(options.get("out")), JsonExtensions.getDefaultEntityMapper())) {
+                generator.generate(sink);
+            }
+            return;
+        }
+
+        IDocumentStore store = RavenDBDocumentStore.getStore();
+
+        try {
+            generator.storeConfiguration(store);
+
+            try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+                generator.generate(bulkInsert::store);
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    public interface Sink {
+        void accept(Object entity, String id) throws IOException;
+    }
+
+    /**
+     * Writes the doctors, the conditions, then every patient followed by
+     * its visits. Returns the number of documents.
+     */
+    public long generate(Sink sink) throws IOException {
+        long start = System.currentTimeMillis();
+        long reported = start;
+        long documents = 0;
+
+        for (Doctor doctor : doctors) {
+            sink.accept(doctor, doctor.getId());
+            documents++;
+        }
+
+        for (int i = 0; i < conditions; i++) {
+            Condition condition = condition(i);
+            sink.accept(condition, condition.getId());
+            documents++;
+        }
+
+        for (int i = 0; i < patients; i++) {
+            Patient patient = patient(i);
+            sink.accept(patient, patient.getId());
+            documents++;
+
+            for (Visit visit : visits(i)) {
+                sink.accept(visit, visit.getId());
+                documents++;
+            }
+
+            long now = System.currentTimeMillis();
+
+            if (now - reported >= REPORT_MILLIS) {
+                logger.info(String.format("%d of %d patients, %.0f documents/s", i + 1, patients,
+                        documents * 1000.0 / (now - start)));
+                reported = now;
+            }
+        }
+
+        logger.info(String.format("Generated %d documents in %.1f s", documents,
+                (System.currentTimeMillis() - start) / 1000.0));
+        return documents;
+    }
+
+    /**
+     * The options the editors offer, matching the generated data. Left alone
+     * when the database already has them.
+     */
+    public void storeConfiguration(IDocumentStore store) {
+        try (IDocumentSession session = store.openSession()) {
+            if (session.load(Configuration.class, ConfigurationCache.CONFIGURATION_ID) != null) {
+                return;
+            }
+
+            Configuration configuration = new Configuration();
+            configuration.setRegions(Arrays.asList(REGIONS));
+            configuration.setDepartments(Arrays.asList(DEPARTMENTS));
+            configuration.setLocations(Arrays.asList(LOCATIONS));
+
+            session.store(configuration, ConfigurationCache.CONFIGURATION_ID);
+            session.saveChanges();
+        }
+    }
+
+    public Doctor doctor(int i) {
+        return doctors[i];
+    }
+
+    private Doctor createDoctor(int i) {
+        SplittableRandom random = random(DOCTORS, i);
+
+        Doctor doctor = new Doctor();
+        doctor.setId("doctors/gen-" + i);
+        doctor.setName("Dr. " + pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES));
+        doctor.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+        doctor.setAge(28 + random.nextInt(40));
+        return doctor;
+    }
+
+    public Condition condition(int i) {
+        SplittableRandom random = random(CONDITIONS, i);
+        String name = CONDITION_NAMES[i % CONDITION_NAMES.length];
+
+        Condition condition = new Condition();
+        condition.setId("conditions/gen-" + i);
+        condition.setName(i < CONDITION_NAMES.length ? name : name + " " + (i / CONDITION_NAMES.length + 1));
+        condition.setSymptoms("Symptoms of " + name.toLowerCase());
+        condition.setRecommendedTreatment(TREATMENTS[random.nextInt(TREATMENTS.length)]);
+        return condition;
+    }
+
+    public Patient patient(int i) {
+        SplittableRandom random = random(PATIENTS, i);
+
+        Patient patient = new Patient();
+        patient.setId("patients/gen-" + i);
+        patient.setFirstName(pick(random, FIRST_NAMES));
+        patient.setLastName(pick(random, LAST_NAMES));
+        patient.setEmail(patient.getFirstName().toLowerCase() + "." + patient.getLastName().toLowerCase()
+                         + i + "@example.com");
+        patient.setGender(random.nextBoolean() ? Gender.MALE : Gender.FEMALE);
+        patient.setBirthDate(daysAgo(365 * 18 + random.nextInt(365 * 72)));
+
+        Address address = new Address();
+        address.setLine((1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+        address.setCity(CITIES[random.nextInt(CITIES.length)]);
+        address.setRegion(REGIONS[random.nextInt(REGIONS.length)]);
+        address.setCode(String.format("%05d", random.nextInt(100000)));
+        patient.setAddress(address);
+
+        return patient;
+    }
+
+    public List<Visit> visits(int patient) {
+        SplittableRandom random = random(VISITS, patient);
+        List<Visit> visits = new ArrayList<>();
+
+        if (doctors.length == 0) {
+            return visits;
+        }
+
+        // Pareto with the given mean: most patients come a few times, some very often
+        double scale = visitsPerPatient * (VISITS_SHAPE - 1) / VISITS_SHAPE;
+        int count = (int) Math.min(MAX_VISITS, scale / Math.pow(1 - random.nextDouble(), 1 / VISITS_SHAPE));
+
+        for (int j = 0; j < count; j++) {
+            // the first doctors get most of the visits
+            Doctor doctor = doctors[(int) (doctors.length * Math.pow(random.nextDouble(), 3))];
+
+            Visit visit = new Visit();
+            visit.setId("visits/gen-" + patient + "-" + j);
+            visit.setPatientId("patients/gen-" + patient);
+            visit.setDoctorId(doctor.getId());
+            visit.setDoctorName(doctor.getName());
+            visit.setDate(daysAgo(random.nextInt(365 * 10)));
+            visit.setType(LOCATIONS[random.nextInt(LOCATIONS.length)]);
+            visit.setvisitSummary(SUMMARIES[random.nextInt(SUMMARIES.length)]);
+
+            if (conditions > 0 && random.nextInt(10) < 7) {
+                visit.setConditionId("conditions/gen-" + random.nextInt(conditions));
+            }
+
+            visits.add(visit);
+        }
+
+        return visits;
+    }
+
+    private SplittableRandom random(int stream, long index) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index);
+    }
+
+    // skewed towards the start of the list
+    private static String pick(SplittableRandom random, String[] names) {
+        return names[(int) (names.length * Math.pow(random.nextDouble(), 2.5))];
+    }
+
+    private static Date daysAgo(int days) {
+        return Date.from(TODAY.minusDays(days).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    /**
+     * One file per collection, named after it: patients.ndjson, visits.ndjson...
+     */
+    private static final class NdjsonSink implements Sink, Closeable {
+
+        private final Path directory;
+        private final ObjectMapper mapper;
+        private final Map<Class<?>, BufferedWriter> writers = new HashMap<>();
+
+        NdjsonSink(Path directory, ObjectMapper mapper) throws IOException {
+            this.directory = Files.createDirectories(directory);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void accept(Object entity, String id) throws IOException {
+            BufferedWriter writer = writers.get(entity.getClass());
+
+            if (writer == null) {
+                String name = entity.getClass().getSimpleName().toLowerCase() + "s.ndjson";
+                writer = Files.newBufferedWriter(directory.resolve(name), StandardCharsets.UTF_8);
+                writers.put(entity.getClass(), writer);
+            }
+
+            writer.write(mapper.writeValueAsString(entity));
+            writer.newLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (BufferedWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+
+    }
+
+}
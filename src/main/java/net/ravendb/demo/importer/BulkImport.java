@@ -0,0 +1,292 @@
+package net.ravendb.demo.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.ravendb.client.documents.BulkInsertOperation;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.demo.presenter.RavenDBDocumentStore;
+
+/**
+ * Imports patients, doctors, conditions and visits from CSV or NDJSON files:
+ *
+ * <pre>
+ * BulkImport doctors=doctors.csv conditions=conditions.csv patients=patients.ndjson visits=visits.csv
+ * </pre>
+ *
+ * The file is read on one thread, its records are parsed, validated and
+ * mapped to the model on a pool of -Dworkers threads (one per core by
+ * default) and written in file order through a bulk insert. Only a few
+ * chunks are in flight at a time: the reader waits when the writer falls
+ * behind, so memory stays flat whatever the size of the file.
+ *
+ * Invalid records are logged and skipped. The bulk insert is closed, which
+ * waits for the server to acknowledge it, every SEGMENT_SIZE records and the
+ * position is saved to a checkpoint next to the file. After a crash, running
+ * the same command resumes from there; records written again are overwritten
+ * by id, not duplicated.
+ */
+public class BulkImport {
+    private static Logger logger = Logger.getLogger(BulkImport.class.getSimpleName());
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int SEGMENT_SIZE = 50_000;
+    private static final long REPORT_MILLIS = 5000;
+
+    private final IDocumentStore store;
+    private final ObjectMapper mapper;
+    private final int workers;
+
+    public BulkImport(IDocumentStore store, int workers) {
+        this.store = store;
+        this.mapper = store.getConventions().getEntityMapper();
+        this.workers = workers;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: BulkImport <patients|doctors|conditions|visits>=<file.csv|file.ndjson> ...");
+            System.exit(1);
+        }
+
+        int workers = Integer.getInteger("workers", Runtime.getRuntime().availableProcessors());
+        BulkImport bulkImport = new BulkImport(RavenDBDocumentStore.getStore(), workers);
+
+        try {
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected <kind>=<file>: " + arg);
+                }
+
+                Kind kind = Kind.valueOf(arg.substring(0, separator).trim().toUpperCase());
+                bulkImport.run(kind, Paths.get(arg.substring(separator + 1).trim()));
+            }
+        } finally {
+            RavenDBDocumentStore.getStore().close();
+        }
+    }
+
+    /**
+     * Imports one file, returns the number of records written.
+     */
+    public long run(Kind kind, Path input) throws IOException, InterruptedException {
+        try (RecordReader<?> reader = RecordReader.open(input, mapper)) {
+            return run(kind, input, reader);
+        }
+    }
+
+    private <R> long run(Kind kind, Path input, RecordReader<R> reader) throws IOException, InterruptedException {
+        Checkpoint checkpoint = new Checkpoint(input);
+        long skip = checkpoint.read();
+        String source = sourceName(input);
+
+        if (skip > 0) {
+            logger.info(input + ": resuming after record " + skip);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        BlockingQueue<Future<Chunk>> pending = new ArrayBlockingQueue<>(workers * 2);
+
+        Thread feeder = new Thread(() -> feed(kind, source, reader, skip, pool, pending), "import-reader");
+        feeder.setDaemon(true);
+        feeder.start();
+
+        try {
+            return write(input, checkpoint, skip, pending);
+        } finally {
+            feeder.interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    // reads the file and hands chunks of records to the pool, in order
+    private <R> void feed(Kind kind, String source, RecordReader<R> reader, long skip,
+                          ExecutorService pool, BlockingQueue<Future<Chunk>> pending) {
+        try {
+            List<R> records = new ArrayList<>(CHUNK_SIZE);
+            long number = 0;
+            R record;
+
+            while ((record = reader.next()) != null) {
+                number++;
+
+                if (number <= skip) {
+                    continue;
+                }
+
+                records.add(record);
+
+                if (records.size() == CHUNK_SIZE) {
+                    submit(kind, source, reader, records, number, pool, pending);
+                    records = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+
+            if (!records.isEmpty()) {
+                submit(kind, source, reader, records, number, pool, pending);
+            }
+
+            // the end of the input
+            pending.put(CompletableFuture.completedFuture(null));
+        } catch (IOException e) {
+            CompletableFuture<Chunk> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+
+            try {
+                pending.put(failure);
+            } catch (InterruptedException interrupted) {
+                // the writer gave up
+            }
+        } catch (InterruptedException e) {
+            // the writer gave up
+        }
+    }
+
+    private <R> void submit(Kind kind, String source, RecordReader<R> reader, List<R> records, long last,
+                            ExecutorService pool, BlockingQueue<Future<Chunk>> pending) throws InterruptedException {
+        long first = last - records.size() + 1;
+        // blocks while the writer is behind
+        pending.put(pool.submit(() -> map(kind, source, reader, records, first)));
+    }
+
+    private <R> Chunk map(Kind kind, String source, RecordReader<R> reader, List<R> records, long first) {
+        Chunk chunk = new Chunk(first + records.size() - 1);
+
+        for (int i = 0; i < records.size(); i++) {
+            long number = first + i;
+
+            try {
+                ObjectNode record = reader.parse(records.get(i));
+                String missing = kind.missingField(record);
+
+                if (missing != null) {
+                    chunk.reject(number, "missing " + missing);
+                    continue;
+                }
+
+                chunk.add(kind.idOf(record, source, number), mapper.treeToValue(record, kind.getType()));
+            } catch (JsonProcessingException e) {
+                chunk.reject(number, e.getOriginalMessage());
+            } catch (IOException e) {
+                chunk.reject(number, e.getMessage());
+            }
+        }
+
+        return chunk;
+    }
+
+    private long write(Path input, Checkpoint checkpoint, long skip,
+                       BlockingQueue<Future<Chunk>> pending) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        long reported = start;
+        long written = 0, rejected = 0, segment = 0;
+        BulkInsertOperation bulkInsert = store.bulkInsert();
+
+        try {
+            Chunk chunk;
+
+            while ((chunk = take(pending)) != null) {
+                for (int i = 0; i < chunk.entities.size(); i++) {
+                    bulkInsert.store(chunk.entities.get(i), chunk.ids.get(i));
+                }
+
+                for (String rejection : chunk.rejections) {
+                    logger.warning(input + ": " + rejection);
+                }
+
+                written += chunk.entities.size();
+                rejected += chunk.rejections.size();
+                segment += chunk.entities.size();
+
+                if (segment >= SEGMENT_SIZE) {
+                    bulkInsert.close();
+                    bulkInsert = null;
+                    checkpoint.save(chunk.last);
+                    bulkInsert = store.bulkInsert();
+                    segment = 0;
+                }
+
+                long now = System.currentTimeMillis();
+
+                if (now - reported >= REPORT_MILLIS) {
+                    logger.info(String.format("%s: %d records, %.0f records/s", input, skip + written,
+                            written * 1000.0 / (now - start)));
+                    reported = now;
+                }
+            }
+
+            bulkInsert.close();
+            bulkInsert = null;
+            checkpoint.delete();
+        } finally {
+            if (bulkInsert != null) {
+                bulkInsert.close();
+            }
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        logger.info(String.format("%s: imported %d records, rejected %d, in %.1f s, %.0f records/s",
+                input, written, rejected, elapsed / 1000.0, written * 1000.0 / elapsed));
+
+        return written;
+    }
+
+    private static Chunk take(BlockingQueue<Future<Chunk>> pending) throws IOException, InterruptedException {
+        try {
+            return pending.take().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String sourceName(Path input) {
+        String name = input.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    private static final class Chunk {
+
+        final long last;
+        final List<String> ids = new ArrayList<>();
+        final List<Object> entities = new ArrayList<>();
+        final List<String> rejections = new ArrayList<>();
+
+        Chunk(long last) {
+            this.last = last;
+        }
+
+        void add(String id, Object entity) {
+            ids.add(id);
+            entities.add(entity);
+        }
+
+        void reject(long number, String reason) {
+            rejections.add("record " + number + " rejected, " + reason);
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package net.ravendb.demo.importer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Number of records of an input file the server has acknowledged, kept next
+ * to the file as &lt;file&gt;.checkpoint until the import completes.
+ */
+final class Checkpoint {
+
+    private final Path file;
+
+    Checkpoint(Path input) {
+        this.file = input.resolveSibling(input.getFileName() + ".checkpoint");
+    }
+
+    long read() throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * Written aside and renamed, a crash leaves either checkpoint but never half of one.
+     */
+    void save(long records) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, Long.toString(records).getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+}
@@ -0,0 +1,128 @@
+package net.ravendb.demo.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * RFC 4180 CSV with a header row naming the fields. Dotted names fill nested
+ * objects, address.city for instance, and empty cells are left out.
+ */
+final class CsvRecordReader implements RecordReader<List<String>> {
+
+    private final BufferedReader reader;
+    private final ObjectMapper mapper;
+    private final List<String[]> header = new ArrayList<>();
+
+    CsvRecordReader(BufferedReader reader, ObjectMapper mapper) throws IOException {
+        this.reader = reader;
+        this.mapper = mapper;
+
+        List<String> names = readRow();
+
+        if (names == null) {
+            throw new IOException("Missing header row");
+        }
+
+        for (String name : names) {
+            header.add(name.trim().split("\\."));
+        }
+    }
+
+    @Override
+    public List<String> next() throws IOException {
+        List<String> row;
+
+        do {
+            row = readRow();
+        } while (row != null && row.size() == 1 && row.get(0).isEmpty());
+
+        return row;
+    }
+
+    @Override
+    public ObjectNode parse(List<String> row) throws IOException {
+        if (row.size() > header.size()) {
+            throw new IOException(row.size() + " fields, the header has " + header.size());
+        }
+
+        ObjectNode record = mapper.createObjectNode();
+
+        for (int i = 0; i < row.size(); i++) {
+            String value = row.get(i);
+
+            if (value.isEmpty()) {
+                continue;
+            }
+
+            String[] path = header.get(i);
+            ObjectNode node = record;
+
+            for (int j = 0; j < path.length - 1; j++) {
+                JsonNode child = node.get(path[j]);
+                node = child instanceof ObjectNode ? (ObjectNode) child : node.putObject(path[j]);
+            }
+
+            node.put(path[path.length - 1], value);
+        }
+
+        return record;
+    }
+
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+
+                if (c == '"') {
+                    c = reader.read();
+
+                    // a doubled quote is a literal one, anything else closes the field
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+
+                field.append((char) c);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+
+            c = reader.read();
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
@@ -0,0 +1,65 @@
+package net.ravendb.demo.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.ravendb.demo.model.Condition;
+import net.ravendb.demo.model.Doctor;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+
+/**
+ * What an input file holds: the model class its records map to and the
+ * fields a record can't be imported without.
+ */
+public enum Kind {
+
+    PATIENTS(Patient.class, "patients", "firstName", "lastName"),
+    DOCTORS(Doctor.class, "doctors", "name"),
+    CONDITIONS(Condition.class, "conditions", "name"),
+    VISITS(Visit.class, "visits", "patientId", "date");
+
+    private final Class<?> type;
+    private final String prefix;
+    private final String[] required;
+
+    Kind(Class<?> type, String prefix, String... required) {
+        this.type = type;
+        this.prefix = prefix;
+        this.required = required;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * The first required field missing from the record, null when there is none.
+     */
+    String missingField(ObjectNode record) {
+        for (String field : required) {
+            JsonNode value = record.get(field);
+
+            if (value == null || value.isNull() || value.asText().trim().isEmpty()) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Records without an id get one from their position in the file, so a
+     * resumed import overwrites them rather than adding duplicates.
+     */
+    String idOf(ObjectNode record, String source, long number) {
+        JsonNode id = record.get("id");
+
+        if (id != null && !id.asText().trim().isEmpty()) {
+            return id.asText().trim();
+        }
+
+        return prefix + "/" + source + "-" + number;
+    }
+
+}
@@ -0,0 +1,50 @@
+package net.ravendb.demo.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * One JSON object per line, shaped like the documents. Blank lines are skipped.
+ */
+final class NdjsonRecordReader implements RecordReader<String> {
+
+    private final BufferedReader reader;
+    private final ObjectMapper mapper;
+
+    NdjsonRecordReader(BufferedReader reader, ObjectMapper mapper) {
+        this.reader = reader;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public String next() throws IOException {
+        String line;
+
+        do {
+            line = reader.readLine();
+        } while (line != null && line.trim().isEmpty());
+
+        return line;
+    }
+
+    @Override
+    public ObjectNode parse(String line) throws IOException {
+        JsonNode record = mapper.readTree(line);
+
+        if (!(record instanceof ObjectNode)) {
+            throw new IOException("Expected a JSON object");
+        }
+
+        return (ObjectNode) record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
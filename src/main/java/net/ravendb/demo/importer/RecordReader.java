@@ -0,0 +1,51 @@
+package net.ravendb.demo.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Streams the records of an input file. Splitting the input into records is
+ * sequential, parsing a record is done on the worker threads and has to be
+ * thread safe.
+ *
+ * @param <R> a record as read from the file, before it is parsed
+ */
+public interface RecordReader<R> extends Closeable {
+
+    /**
+     * The next record, or null at the end of the input.
+     */
+    R next() throws IOException;
+
+    ObjectNode parse(R record) throws IOException;
+
+    /**
+     * A reader for the format of the file: CSV for .csv, NDJSON for .ndjson and .jsonl.
+     */
+    static RecordReader<?> open(Path input, ObjectMapper mapper) throws IOException {
+        String name = input.getFileName().toString().toLowerCase();
+        BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+
+        try {
+            if (name.endsWith(".csv")) {
+                return new CsvRecordReader(reader, mapper);
+            } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return new NdjsonRecordReader(reader, mapper);
+            }
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+
+        reader.close();
+        throw new IllegalArgumentException("Unknown format of " + input + ", expected .csv, .ndjson or .jsonl");
+    }
+
+}
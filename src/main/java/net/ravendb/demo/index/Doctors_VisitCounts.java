@@ -0,0 +1,45 @@
+package net.ravendb.demo.index;
+
+import net.ravendb.client.documents.indexes.AbstractMultiMapIndexCreationTask;
+
+/**
+ * Number of visits per doctor, kept up to date by the server as visits are
+ * added, so the ranking is read instead of grouped on every request. Visits
+ * still embedded in patients are counted too while VisitsMigration runs.
+ *
+ * The doctor name is loaded in the map, the reduce can't load documents.
+ * The reference makes the server re-index the visits of a renamed or deleted
+ * doctor.
+ */
+public class Doctors_VisitCounts extends AbstractMultiMapIndexCreationTask {
+
+    public Doctors_VisitCounts() {
+        addMap("from visit in docs.Visits " +
+               "where visit.doctorId != null " +
+               "let doctor = LoadDocument(visit.doctorId, \"Doctors\") " +
+               "select new { " +
+               "    doctorId = visit.doctorId, " +
+               "    doctorName = doctor != null ? doctor.name : visit.doctorName + \" (deleted)\", " +
+               "    count = 1 " +
+               "}");
+
+        addMap("from patient in docs.Patients " +
+               "from visit in patient.visits " +
+               "where visit.doctorId != null " +
+               "let doctor = LoadDocument(visit.doctorId, \"Doctors\") " +
+               "select new { " +
+               "    doctorId = visit.doctorId, " +
+               "    doctorName = doctor != null ? doctor.name : visit.doctorName + \" (deleted)\", " +
+               "    count = 1 " +
+               "}");
+
+        reduce = "from result in results " +
+                 "group result by result.doctorId into g " +
+                 "select new { " +
+                 "    doctorId = g.Key, " +
+                 "    doctorName = g.Select(x => x.doctorName).FirstOrDefault(), " +
+                 "    count = g.Sum(x => x.count) " +
+                 "}";
+    }
+
+}
@@ -0,0 +1,36 @@
+package net.ravendb.demo.index;
+
+import net.ravendb.client.documents.indexes.AbstractIndexCreationTask;
+import net.ravendb.client.documents.indexes.FieldStorage;
+
+/**
+ * The columns of the patients grid, stored so a page is projected straight
+ * from the index without reading the patients and their embedded visits.
+ * The avatar hash comes from the attachments in the metadata: the thumbnail,
+ * or the full picture for patients ThumbnailBackfill hasn't converted yet.
+ */
+public class Patients_List extends AbstractIndexCreationTask {
+
+    public Patients_List() {
+        map = "from patient in docs.Patients " +
+              "let attachments = MetadataFor(patient)[\"@attachments\"] " +
+              "select new { " +
+              "    firstName = patient.firstName, " +
+              "    lastName = patient.lastName, " +
+              "    email = patient.email, " +
+              "    gender = patient.gender, " +
+              "    birthDate = patient.birthDate, " +
+              "    avatarHash = attachments.Where(a => a.Name == \"profile_picture_thumbnail\") " +
+              "        .Concat(attachments.Where(a => a.Name == \"profile_picture\")) " +
+              "        .Select(a => a.Hash).FirstOrDefault() " +
+              "}";
+
+        store("firstName", FieldStorage.YES);
+        store("lastName", FieldStorage.YES);
+        store("email", FieldStorage.YES);
+        store("gender", FieldStorage.YES);
+        store("birthDate", FieldStorage.YES);
+        store("avatarHash", FieldStorage.YES);
+    }
+
+}
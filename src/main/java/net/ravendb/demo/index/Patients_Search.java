@@ -0,0 +1,40 @@
+package net.ravendb.demo.index;
+
+import net.ravendb.client.documents.indexes.AbstractIndexCreationTask;
+import net.ravendb.client.documents.indexes.FieldIndexing;
+import net.ravendb.client.documents.indexes.FieldStorage;
+
+/**
+ * Full-text search over the names and email of the patients. The analyzed
+ * fields are case-insensitive and matched per word; the other grid columns
+ * are stored so results are projected like the rows of Patients_List.
+ */
+public class Patients_Search extends AbstractIndexCreationTask {
+
+    public Patients_Search() {
+        map = "from patient in docs.Patients " +
+              "let attachments = MetadataFor(patient)[\"@attachments\"] " +
+              "select new { " +
+              "    firstName = patient.firstName, " +
+              "    lastName = patient.lastName, " +
+              "    email = patient.email, " +
+              "    gender = patient.gender, " +
+              "    birthDate = patient.birthDate, " +
+              "    avatarHash = attachments.Where(a => a.Name == \"profile_picture_thumbnail\") " +
+              "        .Concat(attachments.Where(a => a.Name == \"profile_picture\")) " +
+              "        .Select(a => a.Hash).FirstOrDefault() " +
+              "}";
+
+        index("firstName", FieldIndexing.SEARCH);
+        index("lastName", FieldIndexing.SEARCH);
+        index("email", FieldIndexing.SEARCH);
+
+        store("firstName", FieldStorage.YES);
+        store("lastName", FieldStorage.YES);
+        store("email", FieldStorage.YES);
+        store("gender", FieldStorage.YES);
+        store("birthDate", FieldStorage.YES);
+        store("avatarHash", FieldStorage.YES);
+    }
+
+}
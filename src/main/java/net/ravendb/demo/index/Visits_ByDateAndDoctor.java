@@ -0,0 +1,51 @@
+package net.ravendb.demo.index;
+
+import net.ravendb.client.documents.indexes.AbstractMultiMapIndexCreationTask;
+import net.ravendb.client.documents.indexes.FieldStorage;
+
+/**
+ * One entry per visit, from the Visits collection and from the visits still
+ * embedded in patients VisitsMigration hasn't split yet, so listings stay
+ * complete while the migration runs. All fields are stored so visits can be
+ * projected straight from the index.
+ */
+public class Visits_ByDateAndDoctor extends AbstractMultiMapIndexCreationTask {
+
+    public Visits_ByDateAndDoctor() {
+        addMap("from visit in docs.Visits " +
+               "let patient = LoadDocument(visit.patientId, \"Patients\") " +
+               "select new { " +
+               "    patientId = visit.patientId, " +
+               "    doctorName = visit.doctorName, " +
+               "    date = visit.date, " +
+               "    firstName = patient.firstName, " +
+               "    lastName = patient.lastName, " +
+               "    visitSummary = visit.visitSummary, " +
+               "    type = visit.type, " +
+               "    conditionId = visit.conditionId " +
+               "}");
+
+        addMap("from patient in docs.Patients " +
+               "from visit in patient.visits " +
+               "select new { " +
+               "    patientId = Id(patient), " +
+               "    doctorName = visit.doctorName, " +
+               "    date = visit.date, " +
+               "    firstName = patient.firstName, " +
+               "    lastName = patient.lastName, " +
+               "    visitSummary = visit.visitSummary, " +
+               "    type = visit.type, " +
+               "    conditionId = visit.conditionId " +
+               "}");
+
+        store("patientId", FieldStorage.YES);
+        store("doctorName", FieldStorage.YES);
+        store("date", FieldStorage.YES);
+        store("firstName", FieldStorage.YES);
+        store("lastName", FieldStorage.YES);
+        store("visitSummary", FieldStorage.YES);
+        store("type", FieldStorage.YES);
+        store("conditionId", FieldStorage.YES);
+    }
+
+}
@@ -0,0 +1,43 @@
+package net.ravendb.demo.index;
+
+import net.ravendb.client.documents.indexes.AbstractMultiMapIndexCreationTask;
+import net.ravendb.client.documents.indexes.FieldStorage;
+
+/**
+ * The visit history of a patient. Unlike Visits_ByDateAndDoctor the patient
+ * isn't loaded, the history screen shows it separately, so editing a patient
+ * doesn't re-index its visits and the index stays small and quick to catch up.
+ * Visits still embedded in patients are included while VisitsMigration runs.
+ */
+public class Visits_ByPatient extends AbstractMultiMapIndexCreationTask {
+
+    public Visits_ByPatient() {
+        addMap("from visit in docs.Visits " +
+               "select new { " +
+               "    patientId = visit.patientId, " +
+               "    doctorName = visit.doctorName, " +
+               "    date = visit.date, " +
+               "    visitSummary = visit.visitSummary, " +
+               "    type = visit.type, " +
+               "    conditionId = visit.conditionId " +
+               "}");
+
+        addMap("from patient in docs.Patients " +
+               "from visit in patient.visits " +
+               "select new { " +
+               "    patientId = Id(patient), " +
+               "    doctorName = visit.doctorName, " +
+               "    date = visit.date, " +
+               "    visitSummary = visit.visitSummary, " +
+               "    type = visit.type, " +
+               "    conditionId = visit.conditionId " +
+               "}");
+
+        store("doctorName", FieldStorage.YES);
+        store("date", FieldStorage.YES);
+        store("visitSummary", FieldStorage.YES);
+        store("type", FieldStorage.YES);
+        store("conditionId", FieldStorage.YES);
+    }
+
+}
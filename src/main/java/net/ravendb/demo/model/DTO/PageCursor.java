@@ -0,0 +1,42 @@
+package net.ravendb.demo.model.DTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position right after the last row of a page: the sort key of that row
+ * and its document id, which orders the rows sharing that key.
+ */
+public class PageCursor {
+
+    private final Object value;
+    private final String id;
+
+    public PageCursor(Object value, String id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Builds the cursor following the given page, null when it is empty.
+     */
+    public static <T> PageCursor next(List<T> rows, Function<T, ?> sortKey, Function<T, String> id) {
+
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        T last = rows.get(rows.size() - 1);
+
+        return new PageCursor(sortKey.apply(last), id.apply(last));
+    }
+
+}
@@ -0,0 +1,89 @@
+package net.ravendb.demo.model.DTO;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import net.ravendb.demo.model.asset.Gender;
+
+/**
+ * Row of the patients grid, projected from the Patients_List index.
+ */
+public class PatientListItem {
+
+    private String id;
+    private String firstName, lastName;
+    private Date birthDate;
+    private Gender gender;
+    private String email;
+    private String avatarHash;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public Date getBirthDate() {
+        return birthDate;
+    }
+
+    public void setBirthDate(Date birthDate) {
+        this.birthDate = birthDate;
+    }
+
+    public Gender getGender() {
+        return gender;
+    }
+
+    public void setGender(Gender gender) {
+        this.gender = gender;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getAvatarHash() {
+        return avatarHash;
+    }
+
+    public void setAvatarHash(String avatarHash) {
+        this.avatarHash = avatarHash;
+    }
+
+    @JsonIgnore
+    public LocalDate getBirthLocalDate() {
+        if (birthDate != null)
+            return Instant.ofEpochMilli(birthDate.getTime())
+                          .atZone(ZoneId.systemDefault()).toLocalDate();
+        else
+            return null;
+    }
+
+}
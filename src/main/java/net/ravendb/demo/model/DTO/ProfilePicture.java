@@ -1,14 +1,39 @@
 package net.ravendb.demo.model.DTO;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import com.vaadin.flow.server.StreamResource;
 
+/**
+ * An uploaded picture, spooled to a temporary file by the upload receiver
+ * and streamed from there so it is never held in memory as a whole.
+ */
 public class ProfilePicture {
 
+    /**
+     * Longest side of the thumbnail in pixels: twice the 60px avatar, for high density screens.
+     */
+    public static final int THUMBNAIL_SIZE = 120;
+
     String name;
-    byte[] bytes;
+    File file;
+    byte[] thumbnail;
 
     public String getName() {
         return name;
@@ -18,21 +43,112 @@ public class ProfilePicture {
         this.name = name;
     }
     
-    public byte[] getBytes() {
-        return bytes;
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
     }
 
-    public void setBytes(byte[] bytes) {
-        this.bytes = bytes;
+    public byte[] getThumbnail() {
+        return thumbnail;
+    }
+
+    public void setThumbnail(byte[] thumbnail) {
+        this.thumbnail = thumbnail;
     }
 
     public InputStream getInputStream() {
-        return new ByteArrayInputStream(bytes);
+        try {
+            return new FileInputStream(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public InputStream getThumbnailInputStream() {
+        return new ByteArrayInputStream(thumbnail);
     }
 
     public StreamResource getStreamResource() {
-        ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
-        return new StreamResource(name, () -> bis);
+        return new StreamResource(name, this::getInputStream);
+    }
+
+    public void delete() {
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Downscales an image to a JPEG no larger than THUMBNAIL_SIZE on either side.
+     * Returns null when the stream is not a readable image.
+     */
+    public static byte[] createThumbnail(InputStream in) throws IOException {
+        try (ImageInputStream image = ImageIO.createImageInputStream(in)) {
+            return createThumbnail(read(image));
+        }
+    }
+
+    public static byte[] createThumbnail(File file) throws IOException {
+        try (ImageInputStream image = ImageIO.createImageInputStream(file)) {
+            return createThumbnail(read(image));
+        }
+    }
+
+    // Decodes only every n-th pixel of every n-th row, n chosen so the image is
+    // still twice the thumbnail size for a smooth downscale. A full decode
+    // would take width x height x 4 bytes of heap, a lot for a camera picture.
+    private static BufferedImage read(ImageInputStream in) throws IOException {
+        if (in == null) {
+            return null;
+        }
+
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+
+        if (!readers.hasNext()) {
+            return null;
+        }
+
+        ImageReader reader = readers.next();
+
+        try {
+            reader.setInput(in, true, true);
+
+            int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (2 * THUMBNAIL_SIZE));
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(step, step, 0, 0);
+
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static byte[] createThumbnail(BufferedImage source) throws IOException {
+        if (source == null) {
+            return null;
+        }
+
+        double scale = Math.min(1.0, (double) THUMBNAIL_SIZE / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                      RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "jpg", out);
+        return out.toByteArray();
     }
 
 }
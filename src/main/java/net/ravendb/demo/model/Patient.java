@@ -9,6 +9,7 @@ import java.util.Date;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import net.ravendb.demo.model.asset.Gender;
 import net.ravendb.demo.model.asset.Address;
@@ -22,6 +23,9 @@ public class Patient {
 
     private String email;
     private Address address;
+    // visits are documents of their own, only patients VisitsMigration
+    // hasn't split yet still have them embedded
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
     private List<Visit> visits;
 
 
@@ -10,6 +10,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import net.ravendb.demo.model.DTO.ComboValue;
 
 public class Visit {
+    private String id;
+    private String patientId;
     private Date date;
     private String doctorId;
     private String type;
@@ -19,6 +21,22 @@ public class Visit {
     private String doctorName;
     private Condition condition;
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(String patientId) {
+        this.patientId = patientId;
+    }
+
     public Date getDate() {
         return date;
     }
@@ -0,0 +1,92 @@
+package net.ravendb.demo.presenter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.ravendb.client.Constants;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.client.exceptions.ConcurrencyException;
+
+/**
+ * Change vectors of the entities a presenter handed out to its view. The
+ * session that loaded them is closed by the time they come back to be saved
+ * or deleted, so the change vector is kept here for the concurrency check.
+ * Searches read on a worker thread while the UI thread saves, hence the
+ * concurrent map.
+ */
+final class ChangeVectors {
+
+    private final Map<String, String> changeVectors = new ConcurrentHashMap<>();
+
+    /**
+     * Forgets the previous page before the new one is remembered.
+     */
+    void clear() {
+        changeVectors.clear();
+    }
+
+    /**
+     * Remembers an entity read through {@link ReadOnly}, from its metadata.
+     */
+    void remember(ObjectNode metadata) {
+        JsonNode id = metadata.get(Constants.Documents.Metadata.ID);
+        JsonNode changeVector = metadata.get(Constants.Documents.Metadata.CHANGE_VECTOR);
+
+        if (id != null && changeVector != null) {
+            changeVectors.put(id.asText(), changeVector.asText());
+        }
+    }
+
+    void remember(IDocumentSession session, Object entity) {
+        if (entity == null) {
+            return;
+        }
+
+        String id = session.advanced().getDocumentId(entity);
+
+        if (id != null) {
+            String changeVector = session.advanced().getChangeVectorFor(entity);
+
+            if (changeVector != null) {
+                changeVectors.put(id, changeVector);
+            }
+        }
+    }
+
+    /**
+     * Stores a detached entity, checking it wasn't changed since it was handed out.
+     * Remember the entity again after saveChanges to pick up its new change vector.
+     *
+     * An existing entity whose change vector isn't known can't be checked, and
+     * storing it without one would overwrite the server copy, so it is refused
+     * like a conflict: the view reloads it.
+     */
+    void store(IDocumentSession session, Object entity, String id) {
+        if (id == null) {
+            session.store(entity);
+            return;
+        }
+
+        String changeVector = changeVectors.get(id);
+
+        if (changeVector == null) {
+            throw new ConcurrencyException("No change vector known for " + id + ", reload it before saving");
+        }
+
+        session.store(entity, changeVector, id);
+    }
+
+    void delete(IDocumentSession session, String id) {
+        String changeVector = changeVectors.remove(id);
+
+        if (changeVector == null) {
+            session.delete(id);
+        } else {
+            session.delete(id, changeVector);
+        }
+    }
+
+}
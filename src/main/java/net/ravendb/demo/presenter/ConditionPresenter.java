@@ -7,33 +7,37 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import net.ravendb.client.documents.session.IDocumentQuery;
-import net.ravendb.client.documents.session.IDocumentSession;
 import net.ravendb.client.documents.session.QueryStatistics;
 import net.ravendb.client.primitives.Reference;
 import net.ravendb.demo.model.Condition;
+import net.ravendb.demo.model.DTO.PageCursor;
 import net.ravendb.demo.model.Patient;
 
 public class ConditionPresenter implements ViewListener.ConditionViewListener {
-    private IDocumentSession session;
+    private final ChangeVectors changeVectors = new ChangeVectors();
 
     public ConditionPresenter() {}
 
     @Override
     public void delete(Condition condition) {
-        session.delete(condition);
-        session.saveChanges();
+        Sessions.run(session -> {
+            changeVectors.delete(session, condition.getId());
+            session.saveChanges();
+        });
     }
 
     @Override
     public Patient getPatientById(String id) {
-        Patient patient = session.load(Patient.class, id);
-        return patient;
+        return Sessions.call(session -> session.load(Patient.class, id));
     }
 
     @Override
     public void save(Condition condition) {
-        session.store(condition);
-        session.saveChanges();
+        Sessions.run(session -> {
+            changeVectors.store(session, condition, condition.getId());
+            session.saveChanges();
+            changeVectors.remember(session, condition);
+        });
     }
 
     @Override
@@ -42,36 +46,24 @@ public class ConditionPresenter implements ViewListener.ConditionViewListener {
     }
 
     @Override
-    public Pair<Collection<Condition>, Integer> getConditionsList(int offset, int limit, String term) {
-        session.advanced().clear();
-        Reference<QueryStatistics> statsRef = new Reference<>();
-        IDocumentQuery<Condition> conditions = session.query(Condition.class)
-                                                      .skip(offset)
-                                                      .take(limit)
-                                                      .statistics(statsRef);
+    public Pair<Collection<Condition>, Integer> getConditionsList(int offset, int limit, PageCursor cursor, String term) {
+        return Sessions.call(session -> {
+            changeVectors.clear();
+            Reference<QueryStatistics> statsRef = new Reference<>();
+            IDocumentQuery<Condition> conditions = ReadOnly.query(session.query(Condition.class), changeVectors::remember)
+                                                           .statistics(statsRef);
 
-        if (term != null && term.length() > 0) {
-            conditions.whereStartsWith("description", term);
-        }
+            if (term != null && term.length() > 0) {
+                conditions.whereStartsWith("description", term);
+            }
 
-        List<Condition> list = conditions.toList();
-        int totalResults = statsRef.value.getTotalResults();
+            Keyset.page(conditions, "name", false, offset, limit, cursor);
 
-        return new ImmutablePair<Collection<Condition>, Integer>(list, totalResults);
+            List<Condition> list = conditions.toList();
+            int totalResults = Keyset.totalResults(offset, cursor, statsRef.value);
 
-    }
-
-    @Override
-    public void openSession() {
-
-        if (session == null) {
-            session = RavenDBDocumentStore.getStore().openSession();
-        }
-    }
-
-    @Override
-    public void releaseSession() {
-        session.close();
+            return new ImmutablePair<Collection<Condition>, Integer>(list, totalResults);
+        });
     }
 
 }
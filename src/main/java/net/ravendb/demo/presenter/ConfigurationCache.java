@@ -0,0 +1,73 @@
+package net.ravendb.demo.presenter;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.changes.IDatabaseChanges;
+import net.ravendb.client.documents.changes.Observers;
+import net.ravendb.demo.model.asset.Configuration;
+
+/**
+ * Application wide copy of the configurations/options document. It is
+ * dropped whenever the Changes API reports a change to the document, or
+ * the changes connection fails and notifications may have been missed.
+ */
+public final class ConfigurationCache {
+    private static Logger logger = Logger.getLogger(ConfigurationCache.class.getSimpleName());
+
+    public static final String CONFIGURATION_ID = "configurations/options";
+
+    private static Configuration configuration;
+    private static boolean loaded;
+    private static long generation;
+
+    static {
+        IDocumentStore store = RavenDBDocumentStore.getStore();
+        IDatabaseChanges changes = store.changes();
+
+        changes.addOnError(e -> {
+            logger.log(Level.WARNING, "Changes connection failed, dropping cached configuration", e);
+            invalidate();
+        });
+        changes.forDocument(CONFIGURATION_ID)
+               .subscribe(Observers.create(change -> invalidate()));
+    }
+
+    private ConfigurationCache() {}
+
+    /**
+     * Returns the cached configuration, loading it on first use or after a change.
+     * Null when the document doesn't exist.
+     */
+    public static Configuration get() {
+        long loading;
+
+        synchronized (ConfigurationCache.class) {
+            if (loaded) {
+                return configuration;
+            }
+
+            loading = generation;
+        }
+
+        Configuration current = Sessions.call(session -> session.load(Configuration.class, CONFIGURATION_ID));
+
+        synchronized (ConfigurationCache.class) {
+            // a change arrived while loading, let the next caller load it again
+            if (loading == generation) {
+                configuration = current;
+                loaded = true;
+            }
+        }
+
+        return current;
+    }
+
+    static synchronized void invalidate() {
+        generation++;
+        loaded = false;
+        configuration = null;
+    }
+
+}
@@ -3,30 +3,38 @@ package net.ravendb.demo.presenter;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import net.ravendb.client.documents.Lazy;
+import net.ravendb.client.documents.session.OrderingType;
+import net.ravendb.client.documents.session.IDocumentQuery;
 import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.index.Doctors_VisitCounts;
 import net.ravendb.demo.model.DTO.DoctorVisit;
 import net.ravendb.demo.model.asset.Configuration;
 import net.ravendb.demo.model.Doctor;
-import net.ravendb.demo.model.Patient;
 
 public class DoctorPresenter implements ViewListener.DoctorViewListener {
 
-    private IDocumentSession session;
+    private static final int TOP_DOCTORS = 10;
+
+    private final ChangeVectors changeVectors = new ChangeVectors();
 
     public DoctorPresenter() {}
 
     @Override
     public Collection<Doctor> getDoctorsList() {
-        return session.query(Doctor.class).toList();
+        return Sessions.call(session -> {
+            changeVectors.clear();
+            return ReadOnly.query(session.query(Doctor.class), changeVectors::remember).toList();
+        });
     }
 
     @Override
     public Collection<String> getDepartments() {
-        Configuration configuration = session.load(Configuration.class, "configurations/options");
+        Configuration configuration = ConfigurationCache.get();
 
         if (configuration != null) {
             return configuration.getDepartments();
@@ -37,56 +45,46 @@ public class DoctorPresenter implements ViewListener.DoctorViewListener {
 
     @Override
     public void save(Doctor doctor) {
-        session.store(doctor);
-        session.saveChanges();
-
+        Sessions.run(session -> {
+            changeVectors.store(session, doctor, doctor.getId());
+            session.saveChanges();
+            changeVectors.remember(session, doctor);
+        });
     }
 
     @Override
     public void delete(Doctor doctor) {
-        session.delete(doctor);
-        session.saveChanges();
+        Sessions.run(session -> {
+            changeVectors.delete(session, doctor.getId());
+            session.saveChanges();
+        });
     }
 
     @Override
     public Collection<DoctorVisit> getDoctorVisitsList() {
-        List<DoctorVisit> results = session.query(Patient.class)
-                                           .groupBy("visits[].doctorId","visits[].doctorName")
-                                           .selectKey("visits[].doctorId", "doctorId")
-                                           .selectKey("visits[].doctorName", "doctorName") 
-                                           .selectCount()
-                                           .whereNotEquals("doctorId", null)
-                                           .orderByDescending("count")
-                                           .ofType(DoctorVisit.class)
-                                           .include("visits[].doctorId")
-                                           .toList();
-
-        // fetch doctors by batch
-        Set<String> doctorIds = results.stream().map(p -> p.getDoctorId()).collect(Collectors.toSet());
-        Map<String, Doctor> map = session.load(Doctor.class, doctorIds);
-
-        results.forEach(r -> {
-            Doctor doctor = map.get(r.getDoctorId());
-            if (doctor != null)
-                r.setDoctorName(doctor.getName());
-            else
-                r.setDoctorName(r.getDoctorName() + " (deleted)");
-        });
-
-        assert (session.advanced().getNumberOfRequests() == 1);
-        return results;
-
+        return Sessions.call(session -> doctorVisitsQuery(session).toList());
     }
 
+    /**
+     * Both grids of the doctors screen in a single multi-get request.
+     */
     @Override
-    public void openSession() {
-        if (session == null) {
-            session = RavenDBDocumentStore.getStore().openSession();
-        }
+    public Pair<Collection<Doctor>, Collection<DoctorVisit>> getDoctorsWithVisits() {
+        return Sessions.call(session -> {
+            changeVectors.clear();
+            Lazy<List<Doctor>> doctors = ReadOnly.query(session.query(Doctor.class), changeVectors::remember).lazily();
+            Lazy<List<DoctorVisit>> visits = doctorVisitsQuery(session).lazily();
+            session.advanced().eagerly().executeAllPendingLazyOperations();
+
+            return new ImmutablePair<Collection<Doctor>, Collection<DoctorVisit>>(doctors.getValue(), visits.getValue());
+        });
     }
 
-    @Override
-    public void releaseSession() {
-        session.close();
+    // the counts and the doctor names are maintained by the index
+    private static IDocumentQuery<DoctorVisit> doctorVisitsQuery(IDocumentSession session) {
+        return ReadOnly.query(session.query(DoctorVisit.class, Doctors_VisitCounts.class))
+                       .orderByDescending("count", OrderingType.LONG)
+                       .take(TOP_DOCTORS);
     }
+
 }
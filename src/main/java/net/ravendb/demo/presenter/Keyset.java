@@ -0,0 +1,80 @@
+package net.ravendb.demo.presenter;
+
+import java.util.Locale;
+
+import net.ravendb.client.Constants;
+import net.ravendb.client.documents.session.IDocumentQuery;
+import net.ravendb.client.documents.session.QueryStatistics;
+import net.ravendb.demo.model.DTO.PageCursor;
+
+/**
+ * Seek paging helpers. Rows are ordered by the sort key and then by document
+ * id, so the order is total; when a cursor is known the query starts right
+ * after its (key, id) pair with a range predicate instead of skipping all
+ * previous rows.
+ */
+final class Keyset {
+
+    private static final String ID = Constants.Documents.Indexing.Fields.DOCUMENT_ID_FIELD_NAME;
+
+    private Keyset() {}
+
+    static boolean canSeek(PageCursor cursor) {
+        return cursor != null && cursor.getValue() != null && cursor.getId() != null;
+    }
+
+    static <T> void page(IDocumentQuery<T> query, String field, boolean descending,
+                         int offset, int limit, PageCursor cursor) {
+        if (canSeek(cursor)) {
+            // ids are indexed lower-cased
+            String id = cursor.getId().toLowerCase(Locale.ROOT);
+
+            query.openSubclause();
+
+            if (descending) {
+                query.whereLessThan(field, cursor.getValue())
+                     .orElse()
+                     .openSubclause()
+                     .whereEquals(field, cursor.getValue())
+                     .andAlso()
+                     .whereLessThan(ID, id)
+                     .closeSubclause();
+            } else {
+                query.whereGreaterThan(field, cursor.getValue())
+                     .orElse()
+                     .openSubclause()
+                     .whereEquals(field, cursor.getValue())
+                     .andAlso()
+                     .whereGreaterThan(ID, id)
+                     .closeSubclause();
+            }
+
+            query.closeSubclause();
+        } else {
+            query.skip(offset);
+        }
+
+        if (descending) {
+            query.orderByDescending(field)
+                 .orderByDescending(ID);
+        } else {
+            query.orderBy(field)
+                 .orderBy(ID);
+        }
+
+        query.take(limit);
+    }
+
+    /**
+     * A seek query only counts the rows after the cursor,
+     * so the rows before it are added back from the page offset.
+     */
+    static int totalResults(int offset, PageCursor cursor, QueryStatistics stats) {
+        if (canSeek(cursor)) {
+            return offset + stats.getTotalResults();
+        }
+
+        return stats.getTotalResults();
+    }
+
+}
@@ -2,19 +2,26 @@ package net.ravendb.demo.presenter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.logging.Level;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import com.vaadin.flow.server.VaadinServletRequest;
+import net.ravendb.demo.index.Patients_List;
+import net.ravendb.demo.index.Patients_Search;
+import net.ravendb.demo.index.Visits_ByPatient;
+import net.ravendb.demo.model.DTO.PageCursor;
+import net.ravendb.demo.model.DTO.PatientListItem;
 import net.ravendb.demo.model.DTO.ProfilePicture;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import net.ravendb.client.documents.operations.attachments.AttachmentName;
-import net.ravendb.client.documents.operations.attachments.CloseableAttachmentResult;
 import net.ravendb.client.documents.session.IDocumentQuery;
 import net.ravendb.client.documents.session.IDocumentSession;
 import net.ravendb.client.documents.session.QueryStatistics;
@@ -26,53 +33,116 @@ import net.ravendb.demo.model.Patient;
 
 public class PatientPresenter implements ViewListener.PatientViewListener {
     private static Logger logger = Logger.getLogger(PatientPresenter.class.getSimpleName());
-    private final String ATTACHMENT_NAME = "profile_picture";
+    public static final String ATTACHMENT_NAME = "profile_picture";
+    public static final String THUMBNAIL_NAME = "profile_picture_thumbnail";
 
-    private IDocumentSession session;
+    private static final Duration INDEXING_TIMEOUT = Duration.ofSeconds(15);
+
+    private final ChangeVectors changeVectors = new ChangeVectors();
+    private final Map<String, String> thumbnails = new HashMap<>();
 
     public PatientPresenter() {}
 
     @Override
-    public Pair<Collection<Patient>, Integer> getPatientsList(int offset, int limit, boolean order) {
-        Reference<QueryStatistics> statsRef = new Reference<>();
-        IDocumentQuery<Patient> query = session.query(Patient.class)
-                .skip(offset)
-                .take(limit)
-                .statistics(statsRef);
-
-        if (order) {
-            query.orderBy("birthDate");
-        }
+    public Pair<Collection<PatientListItem>, Integer> getPatientsList(int offset, int limit, PageCursor cursor, boolean order) {
+        return Sessions.call(session -> {
+            Reference<QueryStatistics> statsRef = new Reference<>();
+            IDocumentQuery<PatientListItem> query = listQuery(session)
+                    .statistics(statsRef);
 
-        Collection<Patient> patients = query.toList();
-        int totalResults = statsRef.value.getTotalResults();
+            Keyset.page(query, order ? "birthDate" : "lastName", false, offset, limit, cursor);
 
-        return new ImmutablePair<Collection<Patient>, Integer>(patients, totalResults);
+            Collection<PatientListItem> patients = query.toList();
+            int totalResults = Keyset.totalResults(offset, cursor, statsRef.value);
+
+            return new ImmutablePair<Collection<PatientListItem>, Integer>(patients, totalResults);
+        });
     }
 
+    /**
+     * Every word of the term has to match the start of a word of the first name,
+     * last name or email. Results are ranked, whole-word matches first, so they
+     * are paged by offset and the cursor and order are not used; the view
+     * disables its ordering while searching.
+     */
     @Override
-    public Pair<Collection<Patient>, Integer> searchPatientsList(
-           int offset, int limit, String term, boolean order) {
-        Reference<QueryStatistics> statsRef = new Reference<>();
-        IDocumentQuery<Patient> query = session.query(Patient.class)
-                .whereStartsWith("firstName", term)
-                .skip(offset)
-                .take(limit)
-                .statistics(statsRef);
-
-        if (order) {
-            query.orderBy("birthDate");
-        }
+    public Pair<Collection<PatientListItem>, Integer> searchPatientsList(
+           int offset, int limit, PageCursor cursor, String term, boolean order) {
+        return Sessions.call(session -> {
+            Reference<QueryStatistics> statsRef = new Reference<>();
+            IDocumentQuery<PatientListItem> query = ReadOnly.query(session.query(PatientListItem.class, Patients_Search.class))
+                    .selectFields(PatientListItem.class)
+                    .statistics(statsRef);
+
+            boolean first = true;
+
+            for (String word : term.trim().split("\\s+")) {
+                word = word.replaceAll("[^\\p{L}\\p{N}@._-]", "");
+
+                if (word.isEmpty()) {
+                    continue;
+                }
+
+                if (!first) {
+                    query.andAlso();
+                }
+
+                // the exact word scores above the prefix
+                String terms = word + " " + word + "*";
+                query.openSubclause()
+                     .search("firstName", terms)
+                     .orElse()
+                     .search("lastName", terms)
+                     .orElse()
+                     .search("email", terms)
+                     .closeSubclause();
+                first = false;
+            }
+
+            query.orderByScore()
+                 .skip(offset)
+                 .take(limit);
+
+            Collection<PatientListItem> patients = query.toList();
+
+            return new ImmutablePair<Collection<PatientListItem>, Integer>(patients, statsRef.value.getTotalResults());
+        });
+    }
+
+    // the grid columns and the avatar hash are projected from the index,
+    // the patient documents themselves are not read
+    private static IDocumentQuery<PatientListItem> listQuery(IDocumentSession session) {
+        return ReadOnly.query(session.query(PatientListItem.class, Patients_List.class))
+                       .selectFields(PatientListItem.class);
+    }
 
-        Collection<Patient> patients = query.toList();
-        int totalResults = statsRef.value.getTotalResults();
+    /**
+     * The full document, for the editors. It is remembered so it can be
+     * saved back with a concurrency check.
+     */
+    @Override
+    public Patient getPatientById(String id) {
+        return Sessions.call(session -> {
+            Patient patient = session.load(Patient.class, id);
+            changeVectors.clear();
+            thumbnails.clear();
+
+            if (patient != null) {
+                changeVectors.remember(session, patient);
+                AttachmentName thumbnail = getThumbnailName(session, patient);
+
+                if (thumbnail != null) {
+                    thumbnails.put(patient.getId(), thumbnail.getHash());
+                }
+            }
 
-        return new ImmutablePair<Collection<Patient>, Integer>(patients, totalResults);
+            return patient;
+        });
     }
 
     @Override
     public Collection<String> getRegionsList() {
-        Configuration configuration = session.load(Configuration.class, "configurations/options");
+        Configuration configuration = ConfigurationCache.get();
 
         if (configuration != null) {
             return configuration.getRegions();
@@ -83,77 +153,126 @@ public class PatientPresenter implements ViewListener.PatientViewListener {
 
     @Override
     public void create(Patient patient, ProfilePicture profilePicture) {
+        Sessions.run(session -> {
+            session.store(patient);
+            saveChanges(session, patient, profilePicture);
+        });
+    }
+
+    @Override
+    public void update(Patient patient, ProfilePicture profilePicture) throws ConcurrencyException {
+        Sessions.run(session -> {
+            changeVectors.store(session, patient, patient.getId());
+            saveChanges(session, patient, profilePicture);
+        });
+    }
 
-        session.store(patient);
+    private void saveChanges(IDocumentSession session, Patient patient, ProfilePicture profilePicture) {
 
-        if (profilePicture != null) {
-            session.advanced().attachments().store(patient, ATTACHMENT_NAME,
-                    profilePicture.getInputStream());
+        if (profilePicture == null) {
+            session.saveChanges();
+            changeVectors.remember(session, patient);
+            return;
         }
 
-        session.saveChanges();
-    }
+        // the picture is read from its file while saveChanges sends the request
+        try (InputStream picture = profilePicture.getInputStream()) {
+            session.advanced().attachments().store(patient, ATTACHMENT_NAME, picture);
 
-    @Override
-    public void update(Patient patient, ProfilePicture profilePicture) throws ConcurrencyException {
-        session.store(patient);
-        
-        if (profilePicture != null) {
-            session.advanced().attachments().store(patient.getId(), ATTACHMENT_NAME,
-                    profilePicture.getInputStream());
-        }     
-        
-        session.saveChanges();
+            if (profilePicture.getThumbnail() != null) {
+                session.advanced().attachments().store(patient, THUMBNAIL_NAME,
+                        profilePicture.getThumbnailInputStream(), "image/jpeg");
+            }
+
+            session.saveChanges();
+            changeVectors.remember(session, patient);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
+    /**
+     * Patched on the server, only the address is sent and the patient isn't loaded.
+     */
     @Override
     public void saveAddress(String patientId, Address address) {
-        Patient patient = session.load(Patient.class, patientId);
-        patient.setAddress(address);
-        session.store(patient);
-        session.saveChanges();
+        Sessions.run(session -> {
+            session.advanced().patch(patientId, "address", address);
+            session.saveChanges();
+        });
     }
 
+    /**
+     * The visits of the patient are documents of their own. They are deleted
+     * in the same transaction as the patient, so none is left behind in the
+     * listings if the delete fails. Throws TimeoutException, with nothing
+     * deleted, when the visit index hasn't caught up within INDEXING_TIMEOUT.
+     */
     @Override
-    public void delete(Patient patient) {
-        session.delete(patient);
-        session.saveChanges();
-    }
+    public void delete(String patientId) {
+        Sessions.run(session -> {
+            List<VisitId> visits = ReadOnly.query(session.query(VisitId.class, Visits_ByPatient.class))
+                    .waitForNonStaleResults(INDEXING_TIMEOUT)
+                    .whereEquals("patientId", patientId)
+                    .selectFields(VisitId.class)
+                    .toList();
 
-    @Override
-    public void openSession() {
-        if (session == null) {
-            session = RavenDBDocumentStore.getStore().openSession();
-        }
+            for (VisitId visit : visits) {
+                // visits still embedded in the patient go with it
+                if (!patientId.equals(visit.getId())) {
+                    session.delete(visit.getId());
+                }
+            }
+
+            changeVectors.delete(session, patientId);
+            session.saveChanges();
+        });
     }
 
+    /**
+     * Hash of the avatar of a patient read with getPatientById.
+     */
     @Override
-    public void releaseSession() {
-        session.close();
+    public String getProfileThumbnailHash(Patient patient) {
+        return thumbnails.get(patient.getId());
     }
 
-    @Override
-    public ProfilePicture getProfilePicture(Patient patient) {
-        ProfilePicture profilePicture = new ProfilePicture();
-
-            try (CloseableAttachmentResult result = session.advanced()
-                    .attachments()
-                    .get(patient.getId(), ATTACHMENT_NAME)) {
-
-
-                if (result == null)
-                    return null;
-                InputStream data = result.getData();
-                byte[] bytes = IOUtils.toByteArray(data);
-                profilePicture.setBytes(bytes);
-                profilePicture.setName(ATTACHMENT_NAME);
-                
-                return profilePicture;
-            } catch (IOException e) {
-                logger.log(Level.SEVERE, "", e);
+    /**
+     * The attachment to show as avatar: the thumbnail, or the full picture
+     * for patients ThumbnailBackfill hasn't converted yet.
+     */
+    static AttachmentName getThumbnailName(IDocumentSession session, Patient patient) {
+        AttachmentName picture = null;
+
+        for (AttachmentName name : session.advanced().attachments().getNames(patient)) {
+
+            if (THUMBNAIL_NAME.equals(name.getName())) {
+                return name;
             }
-        
-        return null;
+
+            if (ATTACHMENT_NAME.equals(name.getName())) {
+                picture = name;
+            }
+        }
+
+        return picture;
+    }
+
+    // only the id of the visit is projected from the index. The client maps
+    // the projection and the @id of the results through the bean properties,
+    // a bare field would be left null.
+    public static final class VisitId {
+
+        private String id;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
     }
 
 }
@@ -1,10 +1,17 @@
 package net.ravendb.demo.presenter;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import net.ravendb.client.documents.Lazy;
 import net.ravendb.client.documents.session.IDocumentQuery;
 import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.index.Visits_ByPatient;
 import net.ravendb.demo.model.DTO.PatientVisit;
 import net.ravendb.demo.model.Condition;
 import net.ravendb.demo.model.asset.Configuration;
@@ -14,88 +21,138 @@ import net.ravendb.demo.model.Visit;
 
 public class PatientVisitPresenter implements ViewListener.PatientVisitViewListener {
 
-    private IDocumentSession session;
+    private static final Duration INDEXING_TIMEOUT = Duration.ofSeconds(15);
+    private static final String VISITS_INDEX = new Visits_ByPatient().getIndexName();
+
+    // only what the index stores: the patient's names aren't in it, projecting
+    // them would make the server load every visit document. The id comes from
+    // the metadata of the results.
+    private static final String[] VISIT_FIELDS = {"doctorName", "date", "visitSummary", "type", "conditionId"};
 
     public PatientVisitPresenter() {}
 
     @Override
     public Collection<PatientVisit> getVisitsList(String patientId, String term, boolean order) {
-        Patient patient = session.load(Patient.class, patientId);
-
-        IDocumentQuery<PatientVisit> visits = session.query(Patient.class)
-                .waitForNonStaleResults()
-                .groupBy("visits[].doctorName", "visits[].date", "visits[].type", "visits[].conditionId", "firstName", "lastName", "visits[].visitSummary")
-                .selectKey("visits[].doctorName", "doctorName")
-                .selectKey("visits[].date", "date")
-                .selectKey("visits[].visitSummary", "visitSummary")
-                .selectKey("firstName", "firstName")
-                .selectKey("lastName", "lastName")
-                .selectKey("visits[].type", "type")
-                .selectKey("visits[].conditionId", "conditionId")
-                .selectCount()
-                .ofType(PatientVisit.class)
-                .whereEquals("firstName", patient.getFirstName())
-                .whereEquals("lastName", patient.getLastName());
+        return Sessions.call(session -> visitsQuery(session, patientId, term, order).toList());
+    }
+
+    /**
+     * Patient header and visit history in a single multi-get request.
+     */
+    @Override
+    public Pair<Patient, Collection<PatientVisit>> getPatientWithVisits(String patientId, String term, boolean order) {
+        return Sessions.call(session -> {
+            Lazy<Patient> patient = session.advanced().lazily().load(Patient.class, patientId);
+            Lazy<List<PatientVisit>> visits = visitsQuery(session, patientId, term, order).lazily();
+            session.advanced().eagerly().executeAllPendingLazyOperations();
+
+            return new ImmutablePair<Patient, Collection<PatientVisit>>(patient.getValue(), visits.getValue());
+        });
+    }
+
+    // never waits for the index: save() waits for it instead, so the history
+    // shows a new visit as soon as the editor closes
+    private static IDocumentQuery<PatientVisit> visitsQuery(IDocumentSession session, String patientId,
+                                                            String term, boolean order) {
+        IDocumentQuery<PatientVisit> visits = ReadOnly.query(session.query(PatientVisit.class, Visits_ByPatient.class))
+                .selectFields(PatientVisit.class, VISIT_FIELDS)
+                .whereEquals("patientId", patientId);
 
         if (term != null) {
             visits.whereStartsWith("doctorName", term);
         }
 
         if (order) {
-            return visits.orderByDescending("date").toList();
+            return visits.orderByDescending("date");
         } else {
-            return visits.orderBy("date").toList();
+            return visits.orderBy("date");
         }
     }
 
+    /**
+     * Visits are documents of their own, adding one leaves the patient untouched.
+     * Returns once the visit is in the history index, so the reload that follows
+     * sees it without every read having to wait for indexing. An index that
+     * doesn't catch up in time doesn't fail the save, the visit is committed and
+     * only shows up in the history a little later. The history read meanwhile
+     * is counted as stale in raven_queries by QueryLog.
+     */
     @Override
     public void save(String patientId, Visit visit) {
-        Patient patient = session.load(Patient.class, patientId);
-        patient.getVisits().add(visit);
-        session.store(patient);
-        session.saveChanges();
+        Sessions.run(session -> {
+            visit.setPatientId(patientId);
+            session.store(visit);
+            session.advanced().waitForIndexesAfterSaveChanges(options -> options
+                    .withTimeout(INDEXING_TIMEOUT)
+                    .throwOnTimeout(false)
+                    .waitForIndexes(VISITS_INDEX));
+            session.saveChanges();
+        });
     }
 
     @Override
     public Patient getPatientById(String id) {
-        Patient patient = session.load(Patient.class, id);
-        return patient;
+        return Sessions.call(session -> session.load(Patient.class, id));
     }
 
     @Override
-    public Collection<Doctor> getDoctorsList() {
-        return session.query(Doctor.class).distinct().toList();
+    public Collection<Doctor> getDoctorsList(String prefix, int limit) {
+        return Sessions.call(session -> doctorsQuery(session, prefix, limit).toList());
     }
 
     @Override
-    public Collection<Condition> getConditionsList() {
-
-        return session.query(Condition.class).distinct().toList();
-
+    public Collection<Condition> getConditionsList(String prefix, int limit) {
+        return Sessions.call(session -> conditionsQuery(session, prefix, limit).toList());
     }
 
+    /**
+     * First window of both combo boxes of the visit editor in a single multi-get request.
+     */
     @Override
-    public Condition getConditionById(String conditionId) {
+    public Pair<Collection<Doctor>, Collection<Condition>> getDoctorsAndConditions(int limit) {
+        return Sessions.call(session -> {
+            Lazy<List<Doctor>> doctors = doctorsQuery(session, null, limit).lazily();
+            Lazy<List<Condition>> conditions = conditionsQuery(session, null, limit).lazily();
+            session.advanced().eagerly().executeAllPendingLazyOperations();
+
+            return new ImmutablePair<Collection<Doctor>, Collection<Condition>>(doctors.getValue(), conditions.getValue());
+        });
+    }
+
+    private static IDocumentQuery<Doctor> doctorsQuery(IDocumentSession session, String prefix, int limit) {
+        IDocumentQuery<Doctor> doctors = ReadOnly.query(session.query(Doctor.class))
+                                                .orderBy("name")
+                                                .take(limit);
 
-        return session.load(Condition.class, conditionId);
+        if (prefix != null && prefix.length() > 0) {
+            doctors.whereStartsWith("name", prefix);
+        }
 
+        return doctors;
     }
 
-    @Override
-    public void openSession() {
-        if (session == null) {
-            session = RavenDBDocumentStore.getStore().openSession();
+    private static IDocumentQuery<Condition> conditionsQuery(IDocumentSession session, String prefix, int limit) {
+        IDocumentQuery<Condition> conditions = ReadOnly.query(session.query(Condition.class))
+                                                      .orderBy("name")
+                                                      .take(limit);
+
+        if (prefix != null && prefix.length() > 0) {
+            conditions.whereStartsWith("name", prefix);
         }
+
+        return conditions;
     }
 
     @Override
-    public void releaseSession() {
-        session.close();
+    public Condition getConditionById(String conditionId) {
+
+        return Sessions.call(session -> session.load(Condition.class, conditionId));
+
     }
 
     @Override
     public Collection<String> getLocationsList() {
-        Configuration configuration = session.load(Configuration.class, "configurations/options");
+        Configuration configuration = ConfigurationCache.get();
         if (configuration != null) {
             return configuration.getLocations();
         } else {
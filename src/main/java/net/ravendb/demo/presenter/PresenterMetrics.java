@@ -0,0 +1,102 @@
+package net.ravendb.demo.presenter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import net.ravendb.client.exceptions.ConcurrencyException;
+
+/**
+ * Metrics of every presenter call, published on /metrics by {@link net.ravendb.demo.web.MetricsServlet}:
+ * <ul>
+ * <li>presenter_calls_seconds, a latency histogram per listener, method and
+ * outcome (success, conflict or error) with the exception class</li>
+ * <li>presenter_requests, the RavenDB requests sent by the sessions of a call</li>
+ * <li>raven_queries, the server time of each query, recorded by {@link QueryLog}</li>
+ * </ul>
+ * The views wrap their presenter with {@link #instrument}, which also holds
+ * each call to its {@link RequestBudget}.
+ */
+public final class PresenterMetrics {
+
+    private static final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    static {
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmGcMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+    }
+
+    private PresenterMetrics() {}
+
+    public static PrometheusMeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * The presenter behind a proxy of its listener interface that records its calls.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ViewListener.BaseViewListener> T instrument(Class<T> listener, T presenter) {
+        String name = listener.getSimpleName();
+
+        return (T) Proxy.newProxyInstance(listener.getClassLoader(), new Class<?>[] { listener },
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.invoke(presenter, args);
+                    }
+
+                    return invoke(name, method, presenter, args);
+                });
+    }
+
+    private static Object invoke(String listener, Method method, Object presenter, Object[] args) throws Throwable {
+        long requests = Sessions.getRequestCount();
+        long start = System.nanoTime();
+        Throwable failure = null;
+
+        try {
+            Object result = method.invoke(presenter, args);
+            RequestBudgets.check(listener, method, Sessions.getRequestCount() - requests);
+            return result;
+        } catch (InvocationTargetException e) {
+            failure = e.getCause();
+            throw failure;
+        } catch (RuntimeException e) {
+            // over budget in fail mode, recorded as the error the caller gets
+            failure = e;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String outcome = failure == null ? "success"
+                             : failure instanceof ConcurrencyException ? "conflict" : "error";
+
+            Timer.builder("presenter.calls")
+                 .description("Presenter calls of the views")
+                 .tags("listener", listener, "method", method.getName(),
+                       "outcome", outcome,
+                       "exception", failure == null ? "none" : failure.getClass().getSimpleName())
+                 .publishPercentileHistogram()
+                 .register(registry)
+                 .record(elapsed, TimeUnit.NANOSECONDS);
+
+            DistributionSummary.builder("presenter.requests")
+                               .description("RavenDB requests sent by a presenter call")
+                               .tags("listener", listener, "method", method.getName())
+                               .register(registry)
+                               .record(Sessions.getRequestCount() - requests);
+        }
+    }
+
+}
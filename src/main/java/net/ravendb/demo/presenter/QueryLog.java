@@ -0,0 +1,101 @@
+package net.ravendb.demo.presenter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+import io.micrometer.core.instrument.Timer;
+
+import net.ravendb.client.documents.queries.IndexQuery;
+import net.ravendb.client.documents.queries.QueryResult;
+import net.ravendb.client.documents.session.IDocumentQuery;
+
+/**
+ * Observes the presenter queries. Every query is timed in raven_queries by
+ * index, staleness and whether the index is an auto index, which the server
+ * creates for a dynamic query no static index covers. Queries slower than
+ * -DslowQueryMillis (100 by default) are logged with their RQL and the
+ * names of its parameters, as is the first query seen on each auto index.
+ * The values, search terms, ids and emails of patients, are only logged
+ * with -DslowQueryValues=true. They go to the
+ * console, and with -DslowQueryLog=path/slow-queries.%g.log to a file rotated
+ * over five files of 10MB as well, %g being 0 for the latest.
+ *
+ * Durations are the ones reported by the server.
+ */
+final class QueryLog {
+    private static Logger logger = Logger.getLogger(QueryLog.class.getSimpleName());
+    private static Logger slowQueries = Logger.getLogger("SlowQueries");
+
+    private static final long THRESHOLD_MILLIS = Long.getLong("slowQueryMillis", 100);
+    private static final boolean LOG_VALUES = Boolean.getBoolean("slowQueryValues");
+    private static final String AUTO_INDEX_PREFIX = "Auto/";
+    private static final int LOG_FILE_SIZE = 10 * 1024 * 1024;
+    private static final int LOG_FILES = 5;
+
+    private static final Set<String> autoQueries = ConcurrentHashMap.newKeySet();
+
+    static {
+        String file = System.getProperty("slowQueryLog");
+
+        if (file != null) {
+            try {
+                FileHandler handler = new FileHandler(file, LOG_FILE_SIZE, LOG_FILES, true);
+                handler.setFormatter(new SimpleFormatter());
+                slowQueries.addHandler(handler);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Slow query log " + file + " unavailable, slow queries only go to the console", e);
+            }
+        }
+    }
+
+    private QueryLog() {}
+
+    static <T> IDocumentQuery<T> observe(IDocumentQuery<T> query) {
+        // the RQL is read once the query has run, all its clauses are in by then
+        return query.addAfterQueryExecutedListener(result -> record(query, result));
+    }
+
+    private static void record(IDocumentQuery<?> query, QueryResult result) {
+        String index = result.getIndexName() != null ? result.getIndexName() : "none";
+        boolean auto = index.startsWith(AUTO_INDEX_PREFIX);
+        long duration = result.getDurationInMs();
+
+        Timer.builder("raven.queries")
+             .description("Presenter queries, as timed by the server")
+             .tags("index", index,
+                   "auto", Boolean.toString(auto),
+                   "stale", Boolean.toString(result.isStale()))
+             .register(PresenterMetrics.getRegistry())
+             .record(duration, TimeUnit.MILLISECONDS);
+
+        boolean slow = duration >= THRESHOLD_MILLIS;
+
+        if (!slow && !(auto && autoQueries.add(index))) {
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine(describe(query, result, index, auto));
+            }
+            return;
+        }
+
+        slowQueries.warning((slow ? "Slow query: " : "Auto index query: ") + describe(query, result, index, auto));
+    }
+
+    private static String describe(IDocumentQuery<?> query, QueryResult result, String index, boolean auto) {
+        // the RQL only names its parameters, $p0 and so on; their values are patient data
+        IndexQuery indexQuery = query.getIndexQuery();
+
+        return String.format("%d ms, index %s%s%s, %d results, %s %s",
+                result.getDurationInMs(), index,
+                auto ? " (auto index)" : "",
+                result.isStale() ? ", stale" : "",
+                result.getTotalResults(), indexQuery.getQuery(),
+                LOG_VALUES ? indexQuery.getQueryParameters() : indexQuery.getQueryParameters().keySet());
+    }
+
+}
@@ -3,21 +3,45 @@ package net.ravendb.demo.presenter;
 import net.ravendb.client.documents.DocumentStore;
 import net.ravendb.client.documents.IDocumentStore;
 import net.ravendb.client.documents.conventions.DocumentConventions;
-
+import net.ravendb.client.serverwide.DatabaseRecord;
+import net.ravendb.client.serverwide.operations.CreateDatabaseOperation;
+import net.ravendb.client.serverwide.operations.GetDatabaseRecordOperation;
+import net.ravendb.demo.index.Doctors_VisitCounts;
+import net.ravendb.demo.index.Patients_List;
+import net.ravendb.demo.index.Patients_Search;
+import net.ravendb.demo.index.Visits_ByDateAndDoctor;
+import net.ravendb.demo.index.Visits_ByPatient;
+
+/**
+ * The store of the application, on the Hospital database of the local server.
+ * Tests and benchmarks point it at a database of their own with
+ * -Dravendb.database, which is created when missing; -Dravendb.url changes
+ * the server.
+ */
 public final class RavenDBDocumentStore {
 
     private static IDocumentStore store;
 
     static {
 
-        store = new DocumentStore(new String[]{"http://127.0.0.1:8080"},
-                                  "Hospital");
+        store = new DocumentStore(new String[]{System.getProperty("ravendb.url", "http://127.0.0.1:8080")},
+                                  System.getProperty("ravendb.database", "Hospital"));
 
 
         DocumentConventions conventions = store.getConventions();
         conventions.setUseOptimisticConcurrency(true);
 
         store.initialize();
+
+        if (store.maintenance().server().send(new GetDatabaseRecordOperation(store.getDatabase())) == null) {
+            store.maintenance().server().send(new CreateDatabaseOperation(new DatabaseRecord(store.getDatabase())));
+        }
+
+        new Visits_ByDateAndDoctor().execute(store);
+        new Visits_ByPatient().execute(store);
+        new Patients_List().execute(store);
+        new Patients_Search().execute(store);
+        new Doctors_VisitCounts().execute(store);
     }
 
     public static IDocumentStore getStore() {
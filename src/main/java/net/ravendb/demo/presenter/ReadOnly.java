@@ -0,0 +1,41 @@
+package net.ravendb.demo.presenter;
+
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.ravendb.client.Constants;
+import net.ravendb.client.documents.session.IDocumentQuery;
+
+/**
+ * Read-only path for grid listings. The results are neither tracked nor
+ * snapshotted by the session, so nothing is diffed on saveChanges.
+ * Every presenter query comes through here and is observed by {@link QueryLog}.
+ */
+final class ReadOnly {
+
+    private ReadOnly() {}
+
+    static <T> IDocumentQuery<T> query(IDocumentQuery<T> query) {
+        return QueryLog.observe(query.noTracking());
+    }
+
+    /**
+     * Untracked entities have no metadata in the session, the listener gets
+     * the metadata of each result straight from the query response instead.
+     */
+    static <T> IDocumentQuery<T> query(IDocumentQuery<T> query, Consumer<ObjectNode> metadataListener) {
+        return QueryLog.observe(query.noTracking())
+                       .addAfterQueryExecutedListener(result -> {
+                           for (JsonNode document : result.getResults()) {
+                               JsonNode metadata = document.get(Constants.Documents.Metadata.KEY);
+
+                               if (metadata instanceof ObjectNode) {
+                                   metadataListener.accept((ObjectNode) metadata);
+                               }
+                           }
+                       });
+    }
+
+}
@@ -0,0 +1,21 @@
+package net.ravendb.demo.presenter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most RavenDB requests a presenter operation may send. Declared on the
+ * {@link ViewListener} methods and checked by {@link RequestBudgets} for the
+ * presenters instrumented by {@link PresenterMetrics}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RequestBudget {
+
+    int value();
+
+}
@@ -0,0 +1,64 @@
+package net.ravendb.demo.presenter;
+
+import java.lang.reflect.Method;
+import java.util.logging.Logger;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Checks presenter operations against their {@link RequestBudget}, so a
+ * query added inside a loop shows up as soon as it runs rather than as a
+ * slow screen in production. The mode is set with -DrequestBudget:
+ * <ul>
+ * <li>log, the default: a warning and presenter_budget_exceeded_total</li>
+ * <li>fail: the operation throws, for tests and staging</li>
+ * <li>off</li>
+ * </ul>
+ * The check runs once the operation has returned: a write over budget has
+ * already been committed when it throws, the exception only reports it.
+ */
+public final class RequestBudgets {
+    private static Logger logger = Logger.getLogger(RequestBudgets.class.getSimpleName());
+
+    public enum Mode { OFF, LOG, FAIL }
+
+    private static volatile Mode mode = Mode.valueOf(System.getProperty("requestBudget", "log").toUpperCase());
+
+    private RequestBudgets() {}
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode mode) {
+        RequestBudgets.mode = mode;
+    }
+
+    /**
+     * Throws IllegalStateException in fail mode when the operation went over its
+     * budget, after the operation itself has completed.
+     */
+    static void check(String listener, Method method, long requests) {
+        RequestBudget budget = method.getAnnotation(RequestBudget.class);
+
+        if (mode == Mode.OFF || budget == null || requests <= budget.value()) {
+            return;
+        }
+
+        String message = listener + "." + method.getName() + " sent " + requests
+                         + " requests, its budget is " + budget.value();
+
+        Counter.builder("presenter.budget.exceeded")
+               .description("Presenter calls that sent more requests than their budget")
+               .tags("listener", listener, "method", method.getName())
+               .register(PresenterMetrics.getRegistry())
+               .increment();
+
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException(message);
+        }
+
+        logger.warning(message);
+    }
+
+}
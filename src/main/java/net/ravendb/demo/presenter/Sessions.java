@@ -0,0 +1,44 @@
+package net.ravendb.demo.presenter;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import net.ravendb.client.documents.session.IDocumentSession;
+
+/**
+ * Unit of work for presenter operations. Every call gets its own session,
+ * so loaded entities are released with the operation instead of piling up
+ * in the identity map of a session that lives as long as the view.
+ */
+final class Sessions {
+
+    // requests sent by the sessions of each thread, for PresenterMetrics
+    private static final ThreadLocal<long[]> requests = ThreadLocal.withInitial(() -> new long[1]);
+
+    private Sessions() {}
+
+    static <T> T call(Function<IDocumentSession, T> operation) {
+        try (IDocumentSession session = RavenDBDocumentStore.getStore().openSession()) {
+            try {
+                return operation.apply(session);
+            } finally {
+                requests.get()[0] += session.advanced().getNumberOfRequests();
+            }
+        }
+    }
+
+    /**
+     * Running count of the requests sent by the sessions of the current thread.
+     */
+    static long getRequestCount() {
+        return requests.get()[0];
+    }
+
+    static void run(Consumer<IDocumentSession> operation) {
+        call(session -> {
+            operation.accept(session);
+            return null;
+        });
+    }
+
+}
@@ -0,0 +1,125 @@
+package net.ravendb.demo.presenter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.ravendb.client.Constants;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.commands.StreamResult;
+import net.ravendb.client.documents.operations.attachments.CloseableAttachmentResult;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.client.documents.session.IMetadataDictionary;
+import net.ravendb.client.util.CloseableIterator;
+import net.ravendb.demo.model.DTO.ProfilePicture;
+import net.ravendb.demo.model.Patient;
+
+/**
+ * Generates the thumbnail attachment for patients whose profile picture
+ * was uploaded before thumbnails existed. New uploads get theirs in the editor dialog.
+ */
+public class ThumbnailBackfill {
+    private static Logger logger = Logger.getLogger(ThumbnailBackfill.class.getSimpleName());
+
+    // one attachment download per patient, kept below the session request limit
+    private static final int BATCH_SIZE = 25;
+
+    private final IDocumentStore store;
+
+    public ThumbnailBackfill(IDocumentStore store) {
+        this.store = store;
+    }
+
+    public static void main(String[] args) {
+        int generated = new ThumbnailBackfill(RavenDBDocumentStore.getStore()).run();
+        logger.info("Generated " + generated + " thumbnails");
+        RavenDBDocumentStore.getStore().close();
+    }
+
+    public int run() {
+        List<String> pending = findPending();
+        int generated = 0;
+
+        for (int i = 0; i < pending.size(); i += BATCH_SIZE) {
+            generated += process(pending.subList(i, Math.min(i + BATCH_SIZE, pending.size())));
+        }
+
+        return generated;
+    }
+
+    private List<String> findPending() {
+        List<String> pending = new ArrayList<>();
+
+        try (IDocumentSession session = store.openSession();
+             CloseableIterator<StreamResult<Patient>> results = session.advanced()
+                     .stream(session.query(Patient.class))) {
+
+            while (results.hasNext()) {
+                StreamResult<Patient> result = results.next();
+
+                if (needsThumbnail(result.getMetadata())) {
+                    pending.add(result.getId());
+                }
+            }
+        }
+
+        return pending;
+    }
+
+    private boolean needsThumbnail(IMetadataDictionary metadata) {
+        IMetadataDictionary[] attachments = metadata.getObjects(Constants.Documents.Metadata.ATTACHMENTS);
+
+        if (attachments == null) {
+            return false;
+        }
+
+        boolean picture = false, thumbnail = false;
+
+        for (IMetadataDictionary attachment : attachments) {
+            String name = attachment.getString("Name");
+            picture |= PatientPresenter.ATTACHMENT_NAME.equals(name);
+            thumbnail |= PatientPresenter.THUMBNAIL_NAME.equals(name);
+        }
+
+        return picture && !thumbnail;
+    }
+
+    private int process(List<String> patientIds) {
+        int generated = 0;
+
+        try (IDocumentSession session = store.openSession()) {
+
+            for (String patientId : patientIds) {
+                try (CloseableAttachmentResult result = session.advanced()
+                        .attachments()
+                        .get(patientId, PatientPresenter.ATTACHMENT_NAME)) {
+
+                    if (result == null) {
+                        continue;
+                    }
+
+                    byte[] thumbnail = ProfilePicture.createThumbnail(result.getData());
+
+                    if (thumbnail == null) {
+                        logger.warning("Profile picture of " + patientId + " is not a readable image");
+                        continue;
+                    }
+
+                    session.advanced().attachments().store(patientId, PatientPresenter.THUMBNAIL_NAME,
+                            new ByteArrayInputStream(thumbnail), "image/jpeg");
+                    generated++;
+                } catch (IOException e) {
+                    logger.log(Level.SEVERE, patientId, e);
+                }
+            }
+
+            session.saveChanges();
+        }
+
+        return generated;
+    }
+
+}
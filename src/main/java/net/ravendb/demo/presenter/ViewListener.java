@@ -1,6 +1,8 @@
 package net.ravendb.demo.presenter;
 
 import net.ravendb.demo.model.DTO.DoctorVisit;
+import net.ravendb.demo.model.DTO.PageCursor;
+import net.ravendb.demo.model.DTO.PatientListItem;
 import net.ravendb.demo.model.DTO.PatientVisit;
 import net.ravendb.demo.model.*;
 import net.ravendb.demo.model.DTO.ProfilePicture;
@@ -15,90 +17,109 @@ public interface ViewListener {
     
     interface ConditionViewListener extends BaseViewListener {
 
+        @RequestBudget(1)
         Condition getConditionById(String id);
 
+        @RequestBudget(1)
         Patient getPatientById(String id);
 
+        @RequestBudget(1)
         void save(Condition condition);
 
+        @RequestBudget(1)
         void delete(Condition condition);
 
-        Pair<Collection<Condition>, Integer> getConditionsList(int offset, int limit, String term);
-
-        void openSession();
-
-        void releaseSession();
+        @RequestBudget(1)
+        Pair<Collection<Condition>, Integer> getConditionsList(int offset, int limit, PageCursor cursor, String term);
     }
 
     interface DoctorViewListener extends BaseViewListener {
 
+        @RequestBudget(1)
         Collection<Doctor> getDoctorsList();
 
+        @RequestBudget(1)
         Collection<String> getDepartments();
 
+        @RequestBudget(1)
         void save(Doctor doctor);
 
+        @RequestBudget(1)
         void delete(Doctor doctor);
 
+        @RequestBudget(1)
         Collection<DoctorVisit> getDoctorVisitsList();
 
-        void openSession();
-
-        void releaseSession();
+        @RequestBudget(1)
+        Pair<Collection<Doctor>, Collection<DoctorVisit>> getDoctorsWithVisits();
     }
 
     interface PatientViewListener extends BaseViewListener {
 
-        Pair<Collection<Patient>, Integer> getPatientsList(int offset, int limit, boolean order);
+        @RequestBudget(1)
+        Pair<Collection<PatientListItem>, Integer> getPatientsList(int offset, int limit, PageCursor cursor, boolean order);
 
+        @RequestBudget(1)
+        Patient getPatientById(String id);
+
+        @RequestBudget(1)
         Collection<String> getRegionsList();
 
+        @RequestBudget(1)
         void create(Patient patient, ProfilePicture profilePicture);
 
+        @RequestBudget(1)
         void update(Patient patient, ProfilePicture profilePicture);
 
+        @RequestBudget(1)
         void saveAddress(String patientId, Address address);
 
-        void delete(Patient patient);
-
-        Pair<Collection<Patient>, Integer> searchPatientsList(int offset, int limit, String term, boolean order);
-
-        void openSession();
+        @RequestBudget(2)
+        void delete(String patientId);
 
-        void releaseSession();
+        @RequestBudget(1)
+        Pair<Collection<PatientListItem>, Integer> searchPatientsList(int offset, int limit, PageCursor cursor, String term, boolean order);
 
-        ProfilePicture getProfilePicture(Patient patient);
+        @RequestBudget(0)
+        String getProfileThumbnailHash(Patient patient);
     }
 
     interface PatientVisitViewListener extends BaseViewListener {
 
+        @RequestBudget(1)
         Collection<PatientVisit> getVisitsList(String patientId, String term, boolean order);
 
+        @RequestBudget(1)
+        Pair<Patient, Collection<PatientVisit>> getPatientWithVisits(String patientId, String term, boolean order);
+
+        @RequestBudget(1)
         Condition getConditionById(String conditionId);
 
+        @RequestBudget(1)
         void save(String patientId, Visit visit);
 
+        @RequestBudget(1)
         Patient getPatientById(String id);
 
-        Collection<Doctor> getDoctorsList();
-
-        Collection<Condition> getConditionsList();
+        @RequestBudget(1)
+        Collection<Doctor> getDoctorsList(String prefix, int limit);
 
-        Collection<String> getLocationsList();
+        @RequestBudget(1)
+        Collection<Condition> getConditionsList(String prefix, int limit);
 
-        void openSession();
+        @RequestBudget(1)
+        Pair<Collection<Doctor>, Collection<Condition>> getDoctorsAndConditions(int limit);
 
-        void releaseSession();
+        @RequestBudget(1)
+        Collection<String> getLocationsList();
     }
 
     interface VisitsViewListener extends BaseViewListener {
 
-        Pair<Collection<PatientVisit>, Integer> getVisitsList(int offset, int limit, boolean order);
-
-        Pair<Collection<PatientVisit>, Integer> searchVisitsList(int offset, int limit, String term, boolean order);
-
-        void openSession();
+        @RequestBudget(1)
+        Pair<Collection<PatientVisit>, Integer> getVisitsList(int offset, int limit, PageCursor cursor, boolean order);
 
-        void releaseSession();
+        @RequestBudget(1)
+        Pair<Collection<PatientVisit>, Integer> searchVisitsList(int offset, int limit, PageCursor cursor, String term, boolean order);
     }
 }
@@ -0,0 +1,102 @@
+package net.ravendb.demo.presenter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.commands.StreamResult;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.client.exceptions.ConcurrencyException;
+import net.ravendb.client.util.CloseableIterator;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+
+/**
+ * Splits the visits embedded in patients into documents of the Visits
+ * collection. It runs online: Visits_ByDateAndDoctor covers both shapes,
+ * and each batch moves the visits and empties the patients in one
+ * transaction. Patients changed meanwhile fail the concurrency check and
+ * are left for the next run.
+ */
+public class VisitsMigration {
+    private static Logger logger = Logger.getLogger(VisitsMigration.class.getSimpleName());
+
+    // one load and one save per batch
+    private static final int BATCH_SIZE = 100;
+
+    private final IDocumentStore store;
+
+    public VisitsMigration(IDocumentStore store) {
+        this.store = store;
+    }
+
+    public static void main(String[] args) {
+        int migrated = new VisitsMigration(RavenDBDocumentStore.getStore()).run();
+        logger.info("Migrated " + migrated + " visits");
+        RavenDBDocumentStore.getStore().close();
+    }
+
+    public int run() {
+        List<String> pending = findPending();
+        int migrated = 0;
+
+        for (int i = 0; i < pending.size(); i += BATCH_SIZE) {
+            migrated += process(pending.subList(i, Math.min(i + BATCH_SIZE, pending.size())));
+        }
+
+        return migrated;
+    }
+
+    private List<String> findPending() {
+        List<String> pending = new ArrayList<>();
+
+        try (IDocumentSession session = store.openSession();
+             CloseableIterator<StreamResult<Patient>> results = session.advanced()
+                     .stream(session.query(Patient.class))) {
+
+            while (results.hasNext()) {
+                StreamResult<Patient> result = results.next();
+
+                if (!result.getDocument().getVisits().isEmpty()) {
+                    pending.add(result.getId());
+                }
+            }
+        }
+
+        return pending;
+    }
+
+    private int process(List<String> patientIds) {
+        int migrated = 0;
+
+        try (IDocumentSession session = store.openSession()) {
+            Map<String, Patient> patients = session.load(Patient.class, patientIds);
+
+            for (Map.Entry<String, Patient> entry : patients.entrySet()) {
+                Patient patient = entry.getValue();
+
+                if (patient == null) {
+                    continue;
+                }
+
+                for (Visit visit : patient.getVisits()) {
+                    visit.setPatientId(entry.getKey());
+                    session.store(visit);
+                    migrated++;
+                }
+
+                patient.getVisits().clear();
+            }
+
+            session.saveChanges();
+        } catch (ConcurrencyException e) {
+            logger.warning("Batch starting at " + patientIds.get(0) + " was changed meanwhile, run again: " + e.getMessage());
+            return 0;
+        }
+
+        return migrated;
+    }
+
+}
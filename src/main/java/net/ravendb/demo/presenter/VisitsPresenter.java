@@ -7,83 +7,51 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import net.ravendb.client.documents.session.IDocumentQuery;
-import net.ravendb.client.documents.session.IDocumentSession;
 import net.ravendb.client.documents.session.QueryStatistics;
 import net.ravendb.client.primitives.Reference;
+import net.ravendb.demo.index.Visits_ByDateAndDoctor;
+import net.ravendb.demo.model.DTO.PageCursor;
 import net.ravendb.demo.model.DTO.PatientVisit;
-import net.ravendb.demo.model.Patient;
 
 public class VisitsPresenter implements ViewListener.VisitsViewListener {
 
-    private IDocumentSession session;
-
     public VisitsPresenter() {}
 
     @Override
-    public Pair<Collection<PatientVisit>, Integer> getVisitsList(int offset, int limit, boolean order) {
-        Reference<QueryStatistics> statsRef = new Reference<>();
-        IDocumentQuery<PatientVisit> visits = session.query(Patient.class)
-                .groupBy("visits[].doctorName", "visits[].date", "firstName", "lastName", "visits[].visitSummary")
-                .selectKey("visits[].doctorName", "doctorName").selectKey("visits[].date", "date")
-                .selectKey("visits[].visitSummary", "visitSummary").selectKey("firstName", "firstName")
-                .selectKey("lastName", "lastName")
-                .selectCount()
-                .ofType(PatientVisit.class)
-                .skip(offset)
-                .take(limit)
-                .statistics(statsRef);
-
-        if (order) {
-            visits.orderByDescending("date");
-        } else {
-            visits.orderBy("date");
-        }
-
-        List<PatientVisit> list = visits.toList();
-
-        int totalResults = statsRef.value.getTotalResults();
-
-        return new ImmutablePair<Collection<PatientVisit>, Integer>(list, totalResults);
-    }
+    public Pair<Collection<PatientVisit>, Integer> getVisitsList(int offset, int limit, PageCursor cursor, boolean order) {
+        return Sessions.call(session -> {
+            Reference<QueryStatistics> statsRef = new Reference<>();
+            IDocumentQuery<PatientVisit> visits = ReadOnly.query(session.query(PatientVisit.class, Visits_ByDateAndDoctor.class))
+                    .selectFields(PatientVisit.class)
+                    .statistics(statsRef);
 
+            Keyset.page(visits, "date", order, offset, limit, cursor);
 
-    @Override
-    public Pair<Collection<PatientVisit>, Integer> searchVisitsList(int offset, int limit, String term, boolean order) {
-        Reference<QueryStatistics> statsRef = new Reference<>();
-        IDocumentQuery<PatientVisit> visits = session.advanced().documentQuery(Patient.class)
-                .groupBy("visits[].doctorName", "visits[].date", "firstName", "lastName", "visits[].visitSummary")
-                .selectKey("visits[].doctorName", "doctorName").selectKey("visits[].date", "date")
-                .selectKey("visits[].visitSummary", "visitSummary").selectKey("firstName", "firstName")
-                .selectKey("lastName", "lastName")
-                .selectCount()
-                .ofType(PatientVisit.class)
-                .whereStartsWith("doctorName", term)
-                .skip(offset)
-                .take(limit)
-                .statistics(statsRef);
-
-        if (order) {
-            visits.orderByDescending("date");
-        } else {
-            visits.orderBy("date");
-        }
-
-        List<PatientVisit> list = visits.toList();
-        int totalResults = statsRef.value.getTotalResults();
-
-        return new ImmutablePair<Collection<PatientVisit>, Integer>(list, totalResults);
-    }
+            List<PatientVisit> list = visits.toList();
 
-    @Override
-    public void openSession() {
+            int totalResults = Keyset.totalResults(offset, cursor, statsRef.value);
 
-        if (session == null) {
-            session = RavenDBDocumentStore.getStore().openSession();
-        }
+            return new ImmutablePair<Collection<PatientVisit>, Integer>(list, totalResults);
+        });
     }
 
+
     @Override
-    public void releaseSession() {
-        session.close();
+    public Pair<Collection<PatientVisit>, Integer> searchVisitsList(int offset, int limit, PageCursor cursor, String term, boolean order) {
+        return Sessions.call(session -> {
+            Reference<QueryStatistics> statsRef = new Reference<>();
+            IDocumentQuery<PatientVisit> visits = ReadOnly.query(session.query(PatientVisit.class, Visits_ByDateAndDoctor.class))
+                    .selectFields(PatientVisit.class)
+                    .whereStartsWith("doctorName", term)
+                    .statistics(statsRef);
+
+            Keyset.page(visits, "date", order, offset, limit, cursor);
+
+            List<PatientVisit> list = visits.toList();
+            int totalResults = Keyset.totalResults(offset, cursor, statsRef.value);
+
+            return new ImmutablePair<Collection<PatientVisit>, Integer>(list, totalResults);
+        });
     }
+
 }
@@ -1,6 +1,7 @@
 package net.ravendb.demo.view;
 
 import java.util.Collection;
+import java.util.concurrent.Callable;
 
 import com.vaadin.flow.component.notification.Notification;
 import net.ravendb.client.exceptions.ConcurrencyException;
@@ -12,9 +13,7 @@ import org.claspina.confirmdialog.ConfirmDialog;
 
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
-import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.DetachEvent;
-import com.vaadin.flow.component.KeyDownEvent;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.grid.Grid.SelectionMode;
 import com.vaadin.flow.component.html.H2;
@@ -31,6 +30,7 @@ import net.ravendb.demo.view.editor.ConditionEditorDialog;
 import net.ravendb.demo.view.grid.PageableGrid;
 import net.ravendb.demo.model.Condition;
 import net.ravendb.demo.presenter.ConditionPresenter;
+import net.ravendb.demo.presenter.PresenterMetrics;
 
 @Route(value = "condition", layout = RavenDBApp.class)
 @PageTitle(value = "Hospital Management")
@@ -40,26 +40,25 @@ public class ConditionView extends VerticalLayout {
     private final ViewListener.ConditionViewListener presenter;
     private PageableGrid<Condition> grid;
     TextField search;
+    private LiveSearch<Pair<Collection<Condition>, Integer>> liveSearch;
     Button edit, delete;
 
     public ConditionView() {
-        presenter = new ConditionPresenter();
+        presenter = PresenterMetrics.instrument(ViewListener.ConditionViewListener.class, new ConditionPresenter());
         init();
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
-        presenter.openSession();
         loadPage();
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
-        presenter.releaseSession();
+        liveSearch.cancel();
         super.onDetach(detachEvent);
     }
 
-
     private void init() {
         H2 title = new H2("Condition");
         add(title);
@@ -123,10 +122,8 @@ public class ConditionView extends VerticalLayout {
 
         search = new TextField();
         search.setPlaceholder("Search");
-        search.addKeyDownListener(com.vaadin.flow.component.Key.ENTER,
-                (ComponentEventListener<KeyDownEvent>) keyDownEvent -> {
-                    loadPage();
-                });
+        liveSearch = new LiveSearch<>(this::prepareSearch, this::showFirstPage);
+        liveSearch.attach(search);
 
         span.add(new Icon(VaadinIcon.SEARCH), search);
 
@@ -158,12 +155,26 @@ public class ConditionView extends VerticalLayout {
 
     private void loadPage() {
         int page = grid.getPaginator().getPage();
-        
-        Pair<Collection<Condition>, Integer> result;
-        result = presenter.getConditionsList(page * PAGE_SIZE, PAGE_SIZE, search.getValue());
-        
-        grid.getGrid().setItems(result.getLeft());
-        grid.getPaginator().setTotal(result.getRight());
+        showPage(presenter.getConditionsList(page * PAGE_SIZE, PAGE_SIZE, grid.getCursor(), search.getValue()));
+    }
+
+    // the first page for the term typed in the search box, queried off the request thread
+    private Callable<Pair<Collection<Condition>, Integer>> prepareSearch(String term) {
+        return () -> presenter.getConditionsList(0, PAGE_SIZE, null, term);
+    }
+
+    private void showFirstPage(Pair<Collection<Condition>, Integer> results) {
+        grid.resetCursors();
+
+        if (grid.getPaginator().getPage() != 0) {
+            grid.getPaginator().setPage(0);
+        }
+
+        showPage(results);
+    }
+
+    private void showPage(Pair<Collection<Condition>, Integer> results) {
+        grid.setPage(results.getLeft(), results.getRight(), Condition::getName, Condition::getId);
     }
 
 }
@@ -1,14 +1,16 @@
 package net.ravendb.demo.view;
 
+import java.util.Collection;
+
 import com.vaadin.flow.component.notification.Notification;
 import net.ravendb.client.exceptions.ConcurrencyException;
 import net.ravendb.demo.presenter.ViewListener;
+import org.apache.commons.lang3.tuple.Pair;
 import org.claspina.confirmdialog.ButtonOption;
 import org.claspina.confirmdialog.ConfirmDialog;
 
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
-import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.Grid.SelectionMode;
@@ -22,6 +24,7 @@ import net.ravendb.demo.model.DTO.DoctorVisit;
 import net.ravendb.demo.view.editor.DoctorEditorDialog;
 import net.ravendb.demo.model.Doctor;
 import net.ravendb.demo.presenter.DoctorPresenter;
+import net.ravendb.demo.presenter.PresenterMetrics;
 
 @Route(value = "doctor", layout = RavenDBApp.class)
 @PageTitle(value = "Hospital Management")
@@ -33,22 +36,15 @@ public class DoctorView extends VerticalLayout {
     private Button edit, delete;
 
     public DoctorView() {
-        presenter = new DoctorPresenter();
+        presenter = PresenterMetrics.instrument(ViewListener.DoctorViewListener.class, new DoctorPresenter());
         init();
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
-        presenter.openSession();
         load();
     }
 
-    @Override
-    protected void onDetach(DetachEvent detachEvent) {
-        presenter.releaseSession();
-        super.onDetach(detachEvent);
-    }
-
     private void init() {
         this.setWidth("100%");
         H4 title = new H4("Doctors");
@@ -148,8 +144,10 @@ public class DoctorView extends VerticalLayout {
     }
     
     private void load() {
-        grid.setItems(presenter.getDoctorsList());
-        doctorVisitGrid.setItems(presenter.getDoctorVisitsList());
+        // one request: both grids are read lazily together
+        Pair<Collection<Doctor>, Collection<DoctorVisit>> results = presenter.getDoctorsWithVisits();
+        grid.setItems(results.getLeft());
+        doctorVisitGrid.setItems(results.getRight());
     }
 
 }
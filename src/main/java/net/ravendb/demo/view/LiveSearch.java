@@ -0,0 +1,110 @@
+package net.ravendb.demo.view;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
+
+/**
+ * Search-as-you-type for the search box of a view. Keystrokes are coalesced
+ * for DEBOUNCE_MILLIS, the query runs on a worker thread and its results are
+ * pushed to the UI. A new keystroke cancels the search in flight, and the
+ * results of a superseded search are dropped.
+ */
+public class LiveSearch<R> {
+    private static Logger logger = Logger.getLogger(LiveSearch.class.getSimpleName());
+
+    static final long DEBOUNCE_MILLIS = 300;
+
+    private static final ScheduledExecutorService executor = Executors.newScheduledThreadPool(4, r -> {
+        Thread thread = new Thread(r, "live-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FunctionalInterface
+    public interface Query<R> {
+        /**
+         * Called on the request thread to read what the search needs from the
+         * components. The returned callable runs on a worker thread and must
+         * not touch them.
+         */
+        Callable<R> prepare(String term);
+    }
+
+    private final Query<R> query;
+    private final Consumer<R> render;
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> pending;
+
+    public LiveSearch(Query<R> query, Consumer<R> render) {
+        this.query = query;
+        this.render = render;
+    }
+
+    public void attach(TextField search) {
+        search.setValueChangeMode(ValueChangeMode.EAGER);
+        search.addValueChangeListener(e -> search(e.getValue()));
+    }
+
+    public void search(String term) {
+        UI ui = UI.getCurrent();
+        Callable<R> callable = query.prepare(term == null ? "" : term);
+        long current = generation.incrementAndGet();
+
+        cancelPending();
+        pending = executor.schedule(() -> run(ui, callable, current), DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops the pending search, e.g. when the view is detached.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        cancelPending();
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    private void run(UI ui, Callable<R> callable, long current) {
+        try {
+            R result = callable.call();
+
+            if (generation.get() != current) {
+                return;
+            }
+
+            ui.access(() -> {
+                if (generation.get() == current) {
+                    render.accept(result);
+                }
+            });
+        } catch (UIDetachedException e) {
+            // the user navigated away meanwhile
+        } catch (Exception e) {
+            if (generation.get() != current) {
+                return;
+            }
+
+            logger.log(Level.SEVERE, "Search failed", e);
+            ui.access(() -> Notification.show("Search failed", 5000, Notification.Position.TOP_CENTER));
+        }
+    }
+
+}
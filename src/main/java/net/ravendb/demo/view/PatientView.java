@@ -6,11 +6,14 @@ import java.util.Base64;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 
 import com.vaadin.flow.component.notification.Notification;
 import net.ravendb.client.exceptions.ConcurrencyException;
-import net.ravendb.demo.model.DTO.ProfilePicture;
+import net.ravendb.client.exceptions.TimeoutException;
+import net.ravendb.demo.model.DTO.PageCursor;
+import net.ravendb.demo.model.DTO.PatientListItem;
 import net.ravendb.demo.model.Patient;
 import net.ravendb.demo.presenter.ViewListener;
 import org.apache.commons.lang3.tuple.Pair;
@@ -19,9 +22,7 @@ import org.claspina.confirmdialog.ConfirmDialog;
 
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
-import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.DetachEvent;
-import com.vaadin.flow.component.KeyDownEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.checkbox.Checkbox;
@@ -43,7 +44,9 @@ import net.ravendb.demo.model.asset.Gender;
 import net.ravendb.demo.view.editor.AddressEditorDialog;
 import net.ravendb.demo.view.editor.PatientEditorDialog;
 import net.ravendb.demo.view.grid.PageableGrid;
+import net.ravendb.demo.web.AvatarRequestHandler;
 import net.ravendb.demo.presenter.PatientPresenter;
+import net.ravendb.demo.presenter.PresenterMetrics;
 
 @Route(value = "patient", layout = RavenDBApp.class)
 @PageTitle(value = "Hospital Management")
@@ -52,25 +55,25 @@ public class PatientView extends VerticalLayout {
     
     private final int PAGE_SIZE = 10;
     private final ViewListener.PatientViewListener presenter;
-    private PageableGrid<Patient> grid;
+    private PageableGrid<PatientListItem> grid;
     private Button edit, delete, visits;
     private Checkbox order;
     private TextField search;
+    private LiveSearch<Pair<Collection<PatientListItem>, Integer>> liveSearch;
 
     public PatientView() {
-        presenter = new PatientPresenter();
+        presenter = PresenterMetrics.instrument(ViewListener.PatientViewListener.class, new PatientPresenter());
         init();
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
-        presenter.openSession();
         loadPage();
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
-        presenter.releaseSession();
+        liveSearch.cancel();
         super.onDetach(detachEvent);
     }
 
@@ -99,8 +102,12 @@ public class PatientView extends VerticalLayout {
         header.add(add);
 
         edit = new Button("Edit", e -> {
-            Patient patient = this.grid.getGrid().asSingleSelect().getValue();            
-            
+            Patient patient = loadSelected();
+
+            if (patient == null) {
+                return;
+            }
+
             PatientEditorDialog d = new PatientEditorDialog("Edit",
                     patient, this.presenter, () -> {
                 loadPage();
@@ -115,13 +122,17 @@ public class PatientView extends VerticalLayout {
         delete = new Button("Delete", e -> {
             ConfirmDialog.createQuestion().withCaption("System alert").withMessage("Do you want to delete?")
                     .withOkButton(() -> {
-                Patient patient = grid.getGrid().asSingleSelect().getValue();
+                PatientListItem patient = grid.getGrid().asSingleSelect().getValue();
                 try {
-                    presenter.delete(patient);
+                    presenter.delete(patient.getId());
                 } catch (ConcurrencyException ce) {
                     Notification.show("Document was updated by another user",
                                       5000, Notification.Position.TOP_CENTER);
                     System.out.println(ce);
+                } catch (TimeoutException te) {
+                    Notification.show("The visits of the patient are still being indexed, nothing was deleted. Try again in a moment",
+                                      5000, Notification.Position.TOP_CENTER);
+                    logger.warning(te.getMessage());
                 }
                 
                 loadPage();
@@ -155,13 +166,12 @@ public class PatientView extends VerticalLayout {
 
         search = new TextField();
         search.setPlaceholder("Search");
-        search.addKeyDownListener(com.vaadin.flow.component.Key.ENTER,
-                (ComponentEventListener<KeyDownEvent>) keyDownEvent -> {
-                    loadPage();
-                });
+        liveSearch = new LiveSearch<>(this::prepareSearch, this::showFirstPage);
+        liveSearch.attach(search);
 
         order = new Checkbox("Order by birth date");
         order.addValueChangeListener(e -> {
+            grid.resetCursors();
             loadPage();
         });
 
@@ -172,16 +182,16 @@ public class PatientView extends VerticalLayout {
     }
 
     private Component createGrid() {
-        grid = new PageableGrid<Patient>(this::loadPage);
+        grid = new PageableGrid<PatientListItem>(this::loadPage);
         grid.getGrid().setSelectionMode(SelectionMode.SINGLE);
         grid.setWidth("100%");
 
         grid.getGrid().addComponentColumn(p -> {
-            ProfilePicture profilePicture = presenter.getProfilePicture(p);
+            String hash = p.getAvatarHash();
             Image image = new Image("/frontend/images/avatar.jpeg", "");
             
-            if (profilePicture != null) {
-                image = new Image(profilePicture.getStreamResource(), "");
+            if (hash != null) {
+                image = new Image(AvatarRequestHandler.getUrl(p.getId(), hash), "");
             }
             
             image.setWidth("60px");
@@ -209,8 +219,15 @@ public class PatientView extends VerticalLayout {
             Button address = new Button();
             address.setIcon(new Icon(VaadinIcon.HOME));
             address.addClickListener(e -> {
+                Patient patient = presenter.getPatientById(p.getId());
+
+                if (patient == null) {
+                    patientDeleted();
+                    return;
+                }
+
                 AddressEditorDialog d = new AddressEditorDialog("Address",
-                        p, this.presenter);
+                        patient, this.presenter);
                 d.open();
             });
 
@@ -232,22 +249,66 @@ public class PatientView extends VerticalLayout {
         return grid;
     }
 
-    Collection<Patient> currentPage = null;
-    
+    // the grid only holds projections, the full patient is loaded for the editors
+    private Patient loadSelected() {
+        Patient patient = presenter.getPatientById(grid.getGrid().asSingleSelect().getValue().getId());
+
+        if (patient == null) {
+            patientDeleted();
+        }
+
+        return patient;
+    }
+
+    private void patientDeleted() {
+        Notification.show("Patient was deleted by another user",
+                          5000, Notification.Position.TOP_CENTER);
+        loadPage();
+    }
+
     private void loadPage() {
         int page = grid.getPaginator().getPage();
-        Pair<Collection<Patient>, Integer> results;
-        
-        if (search.getValue().length() > 1) {
-            results =  presenter.searchPatientsList(page * PAGE_SIZE, PAGE_SIZE, search.getValue(), order.getValue());
+        showPage(query(page * PAGE_SIZE, grid.getCursor(), search.getValue(), order.getValue()));
+    }
+
+    // the first page for the term typed in the search box, queried off the request thread
+    private Callable<Pair<Collection<PatientListItem>, Integer>> prepareSearch(String term) {
+        boolean byBirthDate = order.getValue();
+        return () -> query(0, null, term, byBirthDate);
+    }
+
+    private void showFirstPage(Pair<Collection<PatientListItem>, Integer> results) {
+        grid.resetCursors();
+
+        if (grid.getPaginator().getPage() != 0) {
             grid.getPaginator().setPage(0);
+        }
+
+        showPage(results);
+    }
+
+    // one request: the paged query returns the statistics along with the
+    // rows, and the avatar hashes are projected from the index
+    private Pair<Collection<PatientListItem>, Integer> query(int offset, PageCursor cursor, String term,
+                                                              boolean byBirthDate) {
+        if (isSearch(term)) {
+            return presenter.searchPatientsList(offset, PAGE_SIZE, cursor, term, byBirthDate);
         } else {
-            results =  presenter.getPatientsList(page * PAGE_SIZE, PAGE_SIZE, order.getValue());
+            return presenter.getPatientsList(offset, PAGE_SIZE, cursor, byBirthDate);
         }
-        
-        currentPage = results.getLeft();
-        grid.getGrid().setItems(results.getLeft());
-        grid.getPaginator().setTotal(results.getRight());
+    }
+
+    private void showPage(Pair<Collection<PatientListItem>, Integer> results) {
+        // search results are ranked by relevance, not by birth date
+        order.setEnabled(!isSearch(search.getValue()));
+
+        grid.setPage(results.getLeft(), results.getRight(),
+                      order.getValue() ? PatientListItem::getBirthDate : PatientListItem::getLastName,
+                      PatientListItem::getId);
+    }
+
+    private static boolean isSearch(String term) {
+        return term.length() > 1;
     }
 
 }
@@ -3,13 +3,15 @@ package net.ravendb.demo.view;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
-import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.DetachEvent;
-import com.vaadin.flow.component.KeyDownEvent;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.grid.Grid;
@@ -33,6 +35,7 @@ import net.ravendb.demo.view.editor.PatientVisitEditorDialog;
 import net.ravendb.demo.model.Patient;
 import net.ravendb.demo.model.Visit;
 import net.ravendb.demo.presenter.PatientVisitPresenter;
+import net.ravendb.demo.presenter.PresenterMetrics;
 import net.ravendb.demo.presenter.ViewListener;
 
 @Route(value = "patient/patientvisit", layout = RavenDBApp.class)
@@ -46,21 +49,22 @@ public class PatientVisitView extends VerticalLayout implements HasUrlParameter<
     private Grid<PatientVisit> grid;
     private String patientId;
     private Checkbox order;
+    private TextField search;
+    private LiveSearch<Collection<PatientVisit>> liveSearch;
 
     public PatientVisitView() {
-        presenter = new PatientVisitPresenter();
+        presenter = PresenterMetrics.instrument(ViewListener.PatientVisitViewListener.class, new PatientVisitPresenter());
         init();
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
-        presenter.openSession();
         load(patientId);
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
-        presenter.releaseSession();
+        liveSearch.cancel();
         super.onDetach(detachEvent);
     }
 
@@ -88,19 +92,10 @@ public class PatientVisitView extends VerticalLayout implements HasUrlParameter<
         HorizontalLayout layout = new HorizontalLayout();
         Span span = new Span();
 
-        TextField search = new TextField();
+        search = new TextField();
         search.setPlaceholder("Search");
-        search.addKeyDownListener(com.vaadin.flow.component.Key.ENTER,
-                                  (ComponentEventListener<KeyDownEvent>) e -> {
-                    if (!e.isFromClient()) {
-                        return;
-                    }
-                    if (search.getValue().length() > 1) {
-                        load(search.getValue(), order.getValue());
-                    } else {
-                        load(null, order.getValue());
-                    }
-                });
+        liveSearch = new LiveSearch<>(this::prepareSearch, visits -> grid.setItems(visits));
+        liveSearch.attach(search);
 
         order = new Checkbox("Order by visit date");
         order.addValueChangeListener(e -> {
@@ -153,13 +148,22 @@ public class PatientVisitView extends VerticalLayout implements HasUrlParameter<
     }
 
     private void load(String patientId) {
-        patient = presenter.getPatientById(patientId);
+        // one request: the patient and the visit history are read lazily together
+        Pair<Patient, Collection<PatientVisit>> results = presenter.getPatientWithVisits(patientId, null, false);
+        patient = results.getLeft();
         name.setText(patient.getFirstName() + " " + patient.getLastName());
-        load(null, false);
+        grid.setItems(results.getRight());
     }
 
     private void load(String term, boolean order) {
         grid.setItems(presenter.getVisitsList(patientId, term, order));
     }
 
+    // the visits matching the term typed in the search box, queried off the request thread
+    private Callable<Collection<PatientVisit>> prepareSearch(String term) {
+        String id = patientId;
+        boolean descending = order.getValue();
+        return () -> presenter.getVisitsList(id, term.length() > 1 ? term : null, descending);
+    }
+
 }
\ No newline at end of file
@@ -1,26 +1,18 @@
 package net.ravendb.demo.view;
 
-import java.io.IOException;
-
 import org.claspina.confirmdialog.ConfirmDialog;
 
 import com.vaadin.flow.component.Composite;
 import com.vaadin.flow.component.HasElement;
 import com.vaadin.flow.component.dependency.HtmlImport;
 import com.vaadin.flow.component.orderedlayout.FlexComponent.Alignment;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.component.page.Viewport;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouterLayout;
-import com.vaadin.flow.server.RequestHandler;
-import com.vaadin.flow.server.ServiceException;
-import com.vaadin.flow.server.SessionInitEvent;
-import com.vaadin.flow.server.SessionInitListener;
-import com.vaadin.flow.server.VaadinRequest;
-import com.vaadin.flow.server.VaadinResponse;
-import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.theme.Theme;
 import com.vaadin.flow.theme.lumo.Lumo;
 
@@ -32,7 +24,8 @@ import net.ravendb.demo.view.MainMenu;
 @Theme(Lumo.class)
 @HtmlImport("frontend://styles/shared-styles.html")
 @PageTitle(value = "Hospital Management")
-public class RavenDBApp extends Composite<VerticalLayout> implements RouterLayout, SessionInitListener {
+@Push
+public class RavenDBApp extends Composite<VerticalLayout> implements RouterLayout {
 
     private VerticalLayout contentLayout = new VerticalLayout();
     private MainHeader mainHeader = new MainHeader();
@@ -71,20 +64,4 @@ public class RavenDBApp extends Composite<VerticalLayout> implements RouterLayou
         contentLayout.getElement().appendChild(content.getElement());
     }
 
-    @Override
-    public void sessionInit(SessionInitEvent event) throws ServiceException {
-        System.out.println("-----------------------");
-        event.getSession().addRequestHandler(new ImageRequestHandler());
-    }
-
-    private static class ImageRequestHandler implements RequestHandler {
-
-        @Override
-        public boolean handleRequest(VaadinSession session, VaadinRequest request,
-                                     VaadinResponse response) throws IOException {
-            System.out.println(request.getPathInfo());
-            return false;
-        }
-    }
-
 }
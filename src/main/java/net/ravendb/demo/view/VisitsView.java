@@ -3,6 +3,7 @@ package net.ravendb.demo.view;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.Collection;
+import java.util.concurrent.Callable;
 
 import net.ravendb.demo.model.Visit;
 import net.ravendb.demo.presenter.ViewListener;
@@ -10,9 +11,7 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
-import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.DetachEvent;
-import com.vaadin.flow.component.KeyDownEvent;
 import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.grid.Grid.SelectionMode;
 import com.vaadin.flow.component.html.H4;
@@ -27,9 +26,11 @@ import com.vaadin.flow.data.renderer.LocalDateRenderer;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
+import net.ravendb.demo.model.DTO.PageCursor;
 import net.ravendb.demo.model.DTO.PatientVisit;
 import net.ravendb.demo.view.grid.PageableGrid;
 import net.ravendb.demo.presenter.VisitsPresenter;
+import net.ravendb.demo.presenter.PresenterMetrics;
 
 @Route(value = "visits", layout = RavenDBApp.class)
 @PageTitle(value = "Hospital Management")
@@ -41,21 +42,21 @@ public class VisitsView extends VerticalLayout {
     private PageableGrid<PatientVisit> grid;
     private Checkbox order;
     private TextField search;
+    private LiveSearch<Pair<Collection<PatientVisit>, Integer>> liveSearch;
 
     public VisitsView() {
-        presenter = new VisitsPresenter();
+        presenter = PresenterMetrics.instrument(ViewListener.VisitsViewListener.class, new VisitsPresenter());
         init();
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
-        presenter.openSession();
         loadPage();
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
-        presenter.releaseSession();
+        liveSearch.cancel();
         super.onDetach(detachEvent);
     }
 
@@ -79,13 +80,12 @@ public class VisitsView extends VerticalLayout {
 
         search = new TextField();
         search.setPlaceholder("Search");
-        search.addKeyDownListener(com.vaadin.flow.component.Key.ENTER,
-                (ComponentEventListener<KeyDownEvent>) keyDownEvent -> {
-                    loadPage();
-                });
+        liveSearch = new LiveSearch<>(this::prepareSearch, this::showFirstPage);
+        liveSearch.attach(search);
 
         order = new Checkbox("Order by visit date");
         order.addValueChangeListener(e -> {
+            grid.resetCursors();
             loadPage();
         });
 
@@ -118,16 +118,36 @@ public class VisitsView extends VerticalLayout {
 
     private void loadPage() {
         int page = grid.getPaginator().getPage();
-        Pair<Collection<PatientVisit>, Integer> results;
-        
-        if (search.getValue().length() > 1) {
-            results = presenter.searchVisitsList(page * PAGE_SIZE, PAGE_SIZE, search.getValue(), order.getValue());
+        showPage(query(page * PAGE_SIZE, grid.getCursor(), search.getValue(), order.getValue()));
+    }
+
+    // the first page for the term typed in the search box, queried off the request thread
+    private Callable<Pair<Collection<PatientVisit>, Integer>> prepareSearch(String term) {
+        boolean descending = order.getValue();
+        return () -> query(0, null, term, descending);
+    }
+
+    private void showFirstPage(Pair<Collection<PatientVisit>, Integer> results) {
+        grid.resetCursors();
+
+        if (grid.getPaginator().getPage() != 0) {
+            grid.getPaginator().setPage(0);
+        }
+
+        showPage(results);
+    }
+
+    private Pair<Collection<PatientVisit>, Integer> query(int offset, PageCursor cursor, String term,
+                                                          boolean descending) {
+        if (term.length() > 1) {
+            return presenter.searchVisitsList(offset, PAGE_SIZE, cursor, term, descending);
         } else {
-            results = presenter.getVisitsList(page * PAGE_SIZE, PAGE_SIZE, order.getValue());
+            return presenter.getVisitsList(offset, PAGE_SIZE, cursor, descending);
         }
-        
-        grid.getGrid().setItems(results.getLeft());
-        grid.getPaginator().setTotal(results.getRight());
+    }
+
+    private void showPage(Pair<Collection<PatientVisit>, Integer> results) {
+        grid.setPage(results.getLeft(), results.getRight(), PatientVisit::getDate, PatientVisit::getId);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package net.ravendb.demo.view.editor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.data.provider.ListDataProvider;
+
+/**
+ * ComboBox that asks the presenter for the items matching what the user
+ * typed, a window at a time, instead of receiving the whole collection up front.
+ */
+public class LazyComboBox<T> extends ComboBox<T> {
+    public static final int WINDOW_SIZE = 20;
+
+    @FunctionalInterface
+    public interface FetchCallback<T> {
+        Collection<T> fetch(String filter, int limit);
+    }
+
+    private final List<T> items = new ArrayList<>();
+    private final ListDataProvider<T> dataProvider = new ListDataProvider<>(items);
+    private final FetchCallback<T> fetchCallback;
+
+    public LazyComboBox(FetchCallback<T> fetchCallback) {
+        this.fetchCallback = fetchCallback;
+        setDataProvider(dataProvider);
+        addFilterChangeListener(e -> fetch(e.getFilter()));
+    }
+
+    public void fetch(String filter) {
+        show(fetchCallback.fetch(filter == null ? "" : filter, WINDOW_SIZE));
+    }
+
+    /**
+     * Shows a window fetched elsewhere, e.g. batched with other reads of the dialog.
+     */
+    public void show(Collection<T> window) {
+        T value = getValue();
+
+        items.clear();
+        items.addAll(window);
+
+        // the selected item must stay in the list to remain selected
+        if (value != null && !items.contains(value)) {
+            items.add(value);
+        }
+
+        dataProvider.refreshAll();
+    }
+
+}
@@ -1,19 +1,17 @@
 package net.ravendb.demo.view.editor;
 
-import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Iterator;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.imageio.ImageIO;
-import javax.imageio.ImageReader;
-import javax.imageio.stream.ImageInputStream;
 import net.ravendb.demo.model.DTO.ProfilePicture;
 import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.web.AvatarRequestHandler;
 import net.ravendb.demo.presenter.ViewListener;
-import org.apache.commons.io.IOUtils;
 
 import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.Component;
@@ -27,8 +25,6 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.component.upload.SucceededEvent;
 import com.vaadin.flow.component.upload.Upload;
-import com.vaadin.flow.component.upload.receivers.MemoryBuffer;
-import com.vaadin.flow.server.StreamResource;
 
 import net.ravendb.client.exceptions.ConcurrencyException;
 import net.ravendb.demo.model.asset.Gender;
@@ -42,6 +38,7 @@ public class PatientEditorDialog extends AbstractEditorDialog<Patient> {
     private ViewListener.PatientViewListener presenter;
     private Image image;
     private ProfilePicture profilePicture;
+    private File uploadFile;
     private Runnable run;
 
     public PatientEditorDialog(String title, Patient bean,
@@ -52,12 +49,19 @@ public class PatientEditorDialog extends AbstractEditorDialog<Patient> {
         image = new Image("/frontend/images/avatar.jpeg", "");
         
         if (bean.getId() != null) {
-            profilePicture = presenter.getProfilePicture(bean);
+            String hash = presenter.getProfileThumbnailHash(bean);
             
-            if (profilePicture != null) {
-                image = new Image(profilePicture.getStreamResource(), "");
+            if (hash != null) {
+                image = new Image(AvatarRequestHandler.getUrl(bean.getId(), hash), "");
             }
         }
+
+        // the upload is spooled to a temporary file, drop it whichever way the dialog closes
+        addOpenedChangeListener(e -> {
+            if (!e.isOpened() && profilePicture != null) {
+                profilePicture.delete();
+            }
+        });
         
         this.init(title);
     }
@@ -73,11 +77,17 @@ public class PatientEditorDialog extends AbstractEditorDialog<Patient> {
         
         photoLayout.add(image);
 
-        MemoryBuffer fileBuffer = new MemoryBuffer();
-        Upload upload = new Upload(fileBuffer);
+        Upload upload = new Upload(this::receiveUpload);
 
         upload.addSucceededListener(e -> {
-            this.processUpload(e, fileBuffer);
+            this.processUpload(e);
+        });
+        upload.addFailedListener(e -> {
+            // null when the upload failed before it was received
+            if (uploadFile != null) {
+                uploadFile.delete();
+                uploadFile = null;
+            }
         });
         upload.setDropAllowed(false);
 
@@ -127,41 +137,36 @@ public class PatientEditorDialog extends AbstractEditorDialog<Patient> {
         return layout;
     }
 
-    private void processUpload(SucceededEvent event, MemoryBuffer fileBuffer) {
-        InputStream is = fileBuffer.getInputStream();
-
+    private OutputStream receiveUpload(String fileName, String mimeType) {
         try {
-            byte[] bytes = IOUtils.toByteArray(is);
-            image.getElement().setAttribute("src", new StreamResource(
-                    ATTACHMENT_NAME, () -> new ByteArrayInputStream(bytes)));
+            uploadFile = File.createTempFile(ATTACHMENT_NAME, null);
+            return new FileOutputStream(uploadFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            
-            if (profilePicture == null)
-                profilePicture = new ProfilePicture();
-            
-            //create profilePicture
-            profilePicture.setBytes(bytes);
-            profilePicture.setName(ATTACHMENT_NAME);
-
-            try (ImageInputStream in = ImageIO.createImageInputStream(
-                                       new ByteArrayInputStream(bytes))) {
-                final Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
-
-                if (readers.hasNext()) {
-                    ImageReader reader = readers.next();
-
-                    try {
-                        reader.setInput(in);
-                        image.setWidth("60px");
-                        image.setHeight("60px");
-                    } finally {
-                        reader.dispose();
-                    }
-                }
-            }
+    private void processUpload(SucceededEvent event) {
+        if (profilePicture == null) {
+            profilePicture = new ProfilePicture();
+        } else {
+            profilePicture.delete();
+        }
+
+        //create profilePicture
+        profilePicture.setFile(uploadFile);
+        profilePicture.setName(ATTACHMENT_NAME);
+        uploadFile = null;
+
+        try {
+            profilePicture.setThumbnail(ProfilePicture.createThumbnail(profilePicture.getFile()));
         } catch (IOException e) {
             logger.log(Level.SEVERE, "", e);
         }
+
+        image.getElement().setAttribute("src", profilePicture.getStreamResource());
+        image.setWidth("60px");
+        image.setHeight("60px");
     }
 
     @Override
@@ -1,8 +1,12 @@
 package net.ravendb.demo.view.editor;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.button.Button;
@@ -13,7 +17,9 @@ import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.textfield.TextArea;
 
 import net.ravendb.client.exceptions.ConcurrencyException;
+import net.ravendb.demo.model.Condition;
 import net.ravendb.demo.model.DTO.ComboValue;
+import net.ravendb.demo.model.Doctor;
 import net.ravendb.demo.model.Visit;
 import net.ravendb.demo.presenter.ViewListener;
 
@@ -21,9 +27,9 @@ public class PatientVisitEditorDialog extends AbstractEditorDialog<Visit> {
 
     private ViewListener.PatientVisitViewListener presenter;
     private Runnable run;
-    private ComboBox<ComboValue> doctor;
+    private LazyComboBox<ComboValue> doctor;
     private String patientId;
-    ComboBox<ComboValue> condition;
+    LazyComboBox<ComboValue> condition;
     ComboBox<String> location;
 
     public PatientVisitEditorDialog(String title, String patientId, Visit bean,
@@ -36,17 +42,11 @@ public class PatientVisitEditorDialog extends AbstractEditorDialog<Visit> {
     }
 
     protected void fetch() {
-        List<ComboValue> list = presenter.getDoctorsList().stream()
-                                         .map(d -> new ComboValue(d.getId(), d.getName()))
-                                         .collect(Collectors.toList());
-        list.add(ComboValue.NULL);
-        doctor.setItems(list);
-
-        list = presenter.getConditionsList().stream()
-                                            .map(d -> new ComboValue(d.getId(), d.getName()))
-                                            .collect(Collectors.toList());
-        list.add(ComboValue.NULL);
-        condition.setItems(list);
+        // one request: the first window of both combo boxes is read lazily together
+        Pair<Collection<Doctor>, Collection<Condition>> lists =
+                presenter.getDoctorsAndConditions(LazyComboBox.WINDOW_SIZE);
+        doctor.show(toComboValues(lists.getLeft(), Doctor::getId, Doctor::getName, ""));
+        condition.show(toComboValues(lists.getRight(), Condition::getId, Condition::getName, ""));
 
         location.setItems(presenter.getLocationsList());
 
@@ -66,13 +66,15 @@ public class PatientVisitEditorDialog extends AbstractEditorDialog<Visit> {
         binder.forField(location).bind(Visit::getType, Visit::setType);
         layout.addFormItem(location, "Type");
 
-        doctor = new ComboBox<>();
+        doctor = new LazyComboBox<>((filter, limit) ->
+                toComboValues(presenter.getDoctorsList(filter, limit), Doctor::getId, Doctor::getName, filter));
         doctor.setItemLabelGenerator(ComboValue::getName);
         doctor.setAllowCustomValue(true);
         binder.forField(doctor).bind(Visit::getDoctorValue, Visit::setDoctorValue);
         layout.addFormItem(doctor, "Doctor");
 
-        condition = new ComboBox<>();
+        condition = new LazyComboBox<>((filter, limit) ->
+                toComboValues(presenter.getConditionsList(filter, limit), Condition::getId, Condition::getName, filter));
         condition.setItemLabelGenerator(ComboValue::getName);
         binder.forField(condition).bind(Visit::getConditionValue, Visit::setConditionValue);
         layout.addFormItem(condition, "Condition");
@@ -85,6 +87,17 @@ public class PatientVisitEditorDialog extends AbstractEditorDialog<Visit> {
         return layout;
     }
 
+    private static <T> List<ComboValue> toComboValues(Collection<T> items, Function<T, String> id,
+                                                      Function<T, String> name, String filter) {
+        List<ComboValue> list = items.stream()
+                                     .map(i -> new ComboValue(id.apply(i), name.apply(i)))
+                                     .collect(Collectors.toList());
+        if (filter.isEmpty()) {
+            list.add(ComboValue.NULL);
+        }
+        return list;
+    }
+
     @Override
     protected void save(ClickEvent<Button> e) {
 
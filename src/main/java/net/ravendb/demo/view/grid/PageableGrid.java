@@ -1,8 +1,13 @@
 package net.ravendb.demo.view.grid;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
-import org.apache.commons.lang3.tuple.Pair;
+import net.ravendb.demo.model.DTO.PageCursor;
 
 import com.nega.NegaPaginator;
 import com.vaadin.flow.component.grid.Grid;
@@ -19,6 +24,7 @@ public class PageableGrid<T> extends VerticalLayout {
     private NegaPaginator paginator = new NegaPaginator();
     private Grid<T> grid = new Grid<>();
     private final PageableCallback pageableCallback;
+    private final Map<Integer, PageCursor> cursors = new HashMap<>();
 
     public PageableGrid(PageableCallback pageableCallback) {
         paginator.setInitialPage(false);
@@ -49,4 +55,31 @@ public class PageableGrid<T> extends VerticalLayout {
         return this.paginator;
     }
 
+    /**
+     * Cursor left by the previous page, or null when that page was never
+     * loaded and the current one has to be fetched by offset.
+     */
+    public PageCursor getCursor() {
+        int page = paginator.getPage();
+        return page > 0 ? cursors.get(page - 1) : null;
+    }
+
+    public void setPage(Collection<T> items, int total, Function<T, ?> sortKey, Function<T, String> id) {
+        List<T> rows = new ArrayList<>(items);
+        PageCursor next = PageCursor.next(rows, sortKey, id);
+
+        if (next != null) {
+            cursors.put(paginator.getPage(), next);
+        } else {
+            cursors.remove(paginator.getPage());
+        }
+
+        grid.setItems(rows);
+        paginator.setTotal(total);
+    }
+
+    public void resetCursors() {
+        cursors.clear();
+    }
+
 }
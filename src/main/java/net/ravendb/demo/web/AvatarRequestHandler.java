@@ -0,0 +1,171 @@
+package net.ravendb.demo.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+
+import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+
+import net.ravendb.client.documents.operations.attachments.CloseableAttachmentResult;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.presenter.PatientPresenter;
+import net.ravendb.demo.presenter.RavenDBDocumentStore;
+
+/**
+ * Serves patient avatars on /avatars/{patientId}, streamed from the attachment
+ * and validated against its hash, so browsers can cache them.
+ * Registered through META-INF/services.
+ */
+public class AvatarRequestHandler implements RequestHandler, VaadinServiceInitListener {
+
+    private static final String PATH = "/avatars/";
+
+    // versioned urls change whenever the picture does
+    private static final String CACHE_VERSIONED = "public, max-age=31536000, immutable";
+    private static final String CACHE_UNVERSIONED = "public, no-cache";
+
+    // the avatar attachment of a patient, read from its metadata: the patient
+    // document itself, with its embedded visits, isn't sent back
+    private static final String AVATAR_QUERY =
+            "declare function avatar(p) { " +
+            "    var attachments = getMetadata(p)['@attachments'] || []; " +
+            "    var avatar = null; " +
+            "    for (var i = 0; i < attachments.length; i++) { " +
+            "        if (attachments[i].Name == $thumbnail || (attachments[i].Name == $picture && avatar == null)) { " +
+            "            avatar = attachments[i]; " +
+            "        } " +
+            "    } " +
+            "    return avatar ? { name: avatar.Name, hash: avatar.Hash, " +
+            "        contentType: avatar.ContentType, size: avatar.Size } : { }; " +
+            "} " +
+            "from Patients as p where id() = $id select avatar(p)";
+
+    public static String getUrl(String patientId, String hash) {
+        return PATH + encode(patientId) + "?v=" + encode(hash);
+    }
+
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        event.addRequestHandler(this);
+    }
+
+    @Override
+    public boolean handleRequest(VaadinSession vaadinSession, VaadinRequest request,
+                                 VaadinResponse response) throws IOException {
+        String path = request.getPathInfo();
+
+        if (path == null || !path.startsWith(PATH) || !(request instanceof VaadinServletRequest)) {
+            return false;
+        }
+
+        // decoded from the raw uri: in the decoded path an escaped slash of the id
+        // can't be told apart from a separator
+        String uri = ((VaadinServletRequest) request).getRequestURI();
+        String patientId = URLDecoder.decode(uri.substring(uri.lastIndexOf(PATH) + PATH.length()),
+                                             StandardCharsets.UTF_8.name());
+
+        try (IDocumentSession session = RavenDBDocumentStore.getStore().openSession()) {
+            Avatar avatar = findAvatar(session, patientId);
+
+            if (avatar == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "No profile picture");
+                return true;
+            }
+
+            String etag = "\"" + avatar.hash + "\"";
+            response.setHeader("ETag", etag);
+            response.setHeader("Cache-Control",
+                               request.getParameter("v") != null ? CACHE_VERSIONED : CACHE_UNVERSIONED);
+
+            if (matches(request.getHeader("If-None-Match"), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+
+            if (avatar.contentType != null && !avatar.contentType.isEmpty()) {
+                response.setContentType(avatar.contentType);
+            }
+
+            response.setContentLength((int) avatar.size);
+            copyAvatar(session, patientId, avatar, response.getOutputStream());
+        }
+
+        return true;
+    }
+
+    /**
+     * The avatar attachment of a patient, null when it has no picture.
+     */
+    public static Avatar findAvatar(IDocumentSession session, String patientId) {
+        List<Avatar> avatars = session.advanced()
+                .rawQuery(Avatar.class, AVATAR_QUERY)
+                .addParameter("id", patientId)
+                .addParameter("thumbnail", PatientPresenter.THUMBNAIL_NAME)
+                .addParameter("picture", PatientPresenter.ATTACHMENT_NAME)
+                .toList();
+
+        if (avatars.isEmpty() || avatars.get(0).name == null) {
+            return null;
+        }
+
+        return avatars.get(0);
+    }
+
+    public static void copyAvatar(IDocumentSession session, String patientId, Avatar avatar,
+                                  OutputStream out) throws IOException {
+        try (CloseableAttachmentResult result = session.advanced()
+                .attachments()
+                .get(patientId, avatar.name)) {
+            IOUtils.copy(result.getData(), out);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name()).replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the avatar attachment of a patient, empty when it has no picture
+    public static final class Avatar {
+
+        public String name;
+        public String hash;
+        public String contentType;
+        public long size;
+
+    }
+
+}
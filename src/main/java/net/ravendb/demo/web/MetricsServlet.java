@@ -0,0 +1,35 @@
+package net.ravendb.demo.web;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+
+import net.ravendb.demo.presenter.PresenterMetrics;
+
+/**
+ * The metrics in the Prometheus text format on /metrics, for a scraper on
+ * the same host. Other clients are refused.
+ */
+@WebServlet(urlPatterns = "/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        PrometheusMeterRegistry registry = PresenterMetrics.getRegistry();
+        response.setContentType(TextFormat.CONTENT_TYPE_004);
+        response.getWriter().write(registry.scrape());
+    }
+
+}
@@ -0,0 +1,65 @@
+package net.ravendb.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Bytes allocated on the heap by the current thread, exact unlike heap usage
+ * after a garbage collection, and the heap still reachable for what has to
+ * be measured in retained bytes.
+ */
+final class Allocations {
+
+    interface Action {
+        void run() throws Exception;
+    }
+
+    private static final int MAX_COLLECTIONS = 10;
+
+    private Allocations() {}
+
+    /**
+     * Average bytes allocated by one run of the action, after warmup runs
+     * that load classes and fill caches.
+     */
+    static long perRun(int warmup, int runs, Action action) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < warmup; i++) {
+            action.run();
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+
+        for (int i = 0; i < runs; i++) {
+            action.run();
+        }
+
+        return (threads.getThreadAllocatedBytes(thread) - before) / runs;
+    }
+
+    /**
+     * Heap in use after full collections, repeated until it stops shrinking.
+     * Only differences much larger than a few hundred KB are meaningful.
+     */
+    static long retained() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+
+        for (int i = 0; i < MAX_COLLECTIONS; i++) {
+            System.gc();
+            long now = memory.getHeapMemoryUsage().getUsed();
+
+            if (now >= used) {
+                return used;
+            }
+
+            used = now;
+        }
+
+        return used;
+    }
+
+}
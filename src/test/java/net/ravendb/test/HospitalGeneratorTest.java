@@ -0,0 +1,74 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.ravendb.demo.generator.HospitalGenerator;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+
+/**
+ * The generated data depends on the seed only.
+ */
+public class HospitalGeneratorTest {
+
+    @Test
+    public void testSameSeedSameData() {
+        HospitalGenerator small = new HospitalGenerator(42, 1000, 50, 20, 5);
+        HospitalGenerator large = new HospitalGenerator(42, 1_000_000, 50, 20, 5);
+
+        for (int i = 0; i < 1000; i += 97) {
+            Patient patient = small.patient(i);
+            assertEquals(patient.getEmail(), large.patient(i).getEmail());
+            assertEquals(patient.getBirthDate(), large.patient(i).getBirthDate());
+            assertEquals(patient.getAddress().getCode(), large.patient(i).getAddress().getCode());
+
+            List<Visit> visits = small.visits(i);
+            assertEquals(visits.size(), large.visits(i).size());
+
+            for (int j = 0; j < visits.size(); j++) {
+                assertEquals(visits.get(j).getDoctorId(), large.visits(i).get(j).getDoctorId());
+                assertEquals(visits.get(j).getDate(), large.visits(i).get(j).getDate());
+            }
+        }
+    }
+
+    @Test
+    public void testOtherSeedOtherData() {
+        HospitalGenerator first = new HospitalGenerator(1, 1000, 50, 20, 5);
+        HospitalGenerator second = new HospitalGenerator(2, 1000, 50, 20, 5);
+        int same = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            if (first.patient(i).getBirthDate().equals(second.patient(i).getBirthDate())) {
+                same++;
+            }
+        }
+
+        assertNotEquals(1000, same);
+    }
+
+    @Test
+    public void testVisitsPerPatient() {
+        HospitalGenerator generator = new HospitalGenerator(42, 10_000, 50, 20, 5);
+        long visits = 0;
+        int most = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            int count = generator.visits(i).size();
+            visits += count;
+            most = Math.max(most, count);
+        }
+
+        double mean = visits / 10_000.0;
+        assertTrue("mean " + mean, mean > 3 && mean < 7);
+        // a long tail, not a uniform spread around the mean
+        assertTrue("most " + most, most > 50);
+    }
+
+}
@@ -0,0 +1,112 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.ravendb.client.documents.BulkInsertOperation;
+import net.ravendb.demo.model.DTO.PatientListItem;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.presenter.PatientPresenter;
+
+/**
+ * The patient search of the Patients_Search index: every word has to match
+ * the start of a word of the names or the email, case-insensitively, and
+ * whole words rank first. Its latency is measured by PresenterBenchmark.
+ *
+ * Needs a RavenDB server, see TestDatabase.
+ */
+public class PatientSearchIT {
+
+    private static final int PAGE_SIZE = 10;
+    private static final String ID_PREFIX = "patients/search-";
+
+    private static final String[][] PATIENTS = {
+            { "John", "Smith", "john.smith@example.com" },
+            { "Johnny", "Walker", "jwalker@example.com" },
+            { "Mary", "Johnson", "mary@example.com" },
+            { "Mary", "Smithers", "msmithers@example.com" },
+            { "Robert", "Brown", "rob@hospital.org" }
+    };
+
+    private static PatientPresenter presenter;
+
+    @BeforeClass
+    public static void createPatients() {
+        try (BulkInsertOperation bulkInsert = TestDatabase.store().bulkInsert()) {
+            for (int i = 0; i < PATIENTS.length; i++) {
+                Patient patient = new Patient();
+                patient.setFirstName(PATIENTS[i][0]);
+                patient.setLastName(PATIENTS[i][1]);
+                patient.setEmail(PATIENTS[i][2]);
+                bulkInsert.store(patient, ID_PREFIX + i);
+            }
+        }
+
+        TestDatabase.waitForIndexing();
+        presenter = new PatientPresenter();
+    }
+
+    @AfterClass
+    public static void deletePatients() {
+        TestDatabase.deleteByIdPrefix("Patients", ID_PREFIX);
+    }
+
+    @Test
+    public void testPrefixOfAnyName() {
+        List<String> names = search("joh");
+
+        assertEquals(3, names.size());
+        assertTrue(names.containsAll(Arrays.asList("John Smith", "Johnny Walker", "Mary Johnson")));
+    }
+
+    @Test
+    public void testWholeWordRanksFirst() {
+        assertEquals("John Smith", search("john").get(0));
+    }
+
+    @Test
+    public void testEveryWordHasToMatch() {
+        assertEquals(Arrays.asList("Mary Smithers"), search("mary smi"));
+    }
+
+    @Test
+    public void testEmail() {
+        assertEquals(Arrays.asList("Robert Brown"), search("hospital"));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        assertEquals(search("walker"), search("WALKER"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertTrue(search("zzz").isEmpty());
+    }
+
+    @Test
+    public void testSpecialCharactersAreIgnored() {
+        assertEquals(search("walker"), search("walker\")"));
+    }
+
+    private static List<String> search(String term) {
+        List<String> names = new ArrayList<>();
+
+        for (PatientListItem patient : presenter.searchPatientsList(0, PAGE_SIZE, null, term, false).getLeft()) {
+            if (patient.getId().startsWith(ID_PREFIX)) {
+                names.add(patient.getFirstName() + " " + patient.getLastName());
+            }
+        }
+
+        return names;
+    }
+
+}
@@ -0,0 +1,82 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.ravendb.demo.model.DTO.ProfilePicture;
+
+/**
+ * The thumbnail of an uploaded picture is made from its spooled file without
+ * decoding the whole picture on the heap.
+ */
+public class ProfilePictureMemoryTest {
+
+    private static final int WIDTH = 4000;
+    private static final int HEIGHT = 3000;
+
+    private File file;
+
+    @Before
+    public void createPicture() throws IOException {
+        file = File.createTempFile("profile_picture", ".jpg");
+        BufferedImage picture = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        for (int y = 0; y < HEIGHT; y += 100) {
+            for (int x = 0; x < WIDTH; x++) {
+                picture.setRGB(x, y, 0xff0000);
+            }
+        }
+
+        ImageIO.write(picture, "jpg", file);
+    }
+
+    @After
+    public void deletePicture() {
+        file.delete();
+    }
+
+    @Test
+    public void testThumbnailIsDecodedSubsampled() throws Exception {
+        // the warmup run registers the image readers
+        long allocated = Allocations.perRun(1, 1, () -> assertNotNull(ProfilePicture.createThumbnail(file)));
+
+        // a full decode alone takes WIDTH x HEIGHT x 4 bytes
+        assertTrue("allocated " + allocated + " bytes", allocated < (long) WIDTH * HEIGHT);
+    }
+
+    @Test
+    public void testThumbnailSize() throws IOException {
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(ProfilePicture.createThumbnail(file)));
+
+        assertEquals(ProfilePicture.THUMBNAIL_SIZE, thumbnail.getWidth());
+        assertEquals(ProfilePicture.THUMBNAIL_SIZE * HEIGHT / WIDTH, thumbnail.getHeight());
+    }
+
+    @Test
+    public void testSmallPictureIsNotEnlarged() throws IOException {
+        ImageIO.write(new BufferedImage(50, 30, BufferedImage.TYPE_INT_RGB), "png", file);
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(ProfilePicture.createThumbnail(file)));
+
+        assertEquals(50, thumbnail.getWidth());
+        assertEquals(30, thumbnail.getHeight());
+    }
+
+    @Test
+    public void testNotAPicture() throws IOException {
+        assertNull(ProfilePicture.createThumbnail(new ByteArrayInputStream("not a picture".getBytes("UTF-8"))));
+    }
+
+}
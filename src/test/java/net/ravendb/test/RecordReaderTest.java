@@ -0,0 +1,77 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.ravendb.demo.importer.RecordReader;
+
+/**
+ * Parsing of the input files of BulkImport.
+ */
+public class RecordReaderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Path input;
+
+    @After
+    public void deleteInput() throws IOException {
+        if (input != null) {
+            Files.deleteIfExists(input);
+        }
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        ObjectNode first = readFirst(".csv",
+                "firstName,lastName,email,address.city,address.line\r\n" +
+                "Mary,\"O'Brien, Jr\",,Dublin,\"12 \"\"Main\"\"\nStreet\"\r\n");
+
+        assertEquals("Mary", first.get("firstName").asText());
+        assertEquals("O'Brien, Jr", first.get("lastName").asText());
+        assertFalse(first.has("email"));
+        assertEquals("Dublin", first.get("address").get("city").asText());
+        assertEquals("12 \"Main\"\nStreet", first.get("address").get("line").asText());
+    }
+
+    @Test
+    public void testNdjson() throws IOException {
+        ObjectNode first = readFirst(".ndjson",
+                "\n{\"name\":\"Dr. Grey\",\"department\":\"Surgery\",\"age\":42}\n");
+
+        assertEquals("Dr. Grey", first.get("name").asText());
+        assertEquals(42, first.get("age").asInt());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCsvRowLongerThanHeader() throws IOException {
+        readFirst(".csv", "name\nGrey,Surgery\n");
+    }
+
+    private ObjectNode readFirst(String extension, String content) throws IOException {
+        input = Files.createTempFile("records", extension);
+        Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+
+        try (RecordReader<?> reader = RecordReader.open(input, mapper)) {
+            ObjectNode first = parseNext(reader);
+            assertNull(reader.next());
+            return first;
+        }
+    }
+
+    private static <R> ObjectNode parseNext(RecordReader<R> reader) throws IOException {
+        return reader.parse(reader.next());
+    }
+
+}
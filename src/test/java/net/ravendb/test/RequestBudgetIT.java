@@ -0,0 +1,167 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.model.DTO.PageCursor;
+import net.ravendb.demo.model.DTO.PatientListItem;
+import net.ravendb.demo.model.DTO.ProfilePicture;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+import net.ravendb.demo.model.asset.Address;
+import net.ravendb.demo.presenter.ConditionPresenter;
+import net.ravendb.demo.presenter.DoctorPresenter;
+import net.ravendb.demo.presenter.PatientPresenter;
+import net.ravendb.demo.presenter.PatientVisitPresenter;
+import net.ravendb.demo.presenter.PresenterMetrics;
+import net.ravendb.demo.presenter.RequestBudgets;
+import net.ravendb.demo.presenter.ViewListener;
+import net.ravendb.demo.presenter.VisitsPresenter;
+
+/**
+ * The screens stay within the request budgets of their operations, reads
+ * and writes: an operation over budget throws in fail mode.
+ *
+ * Needs a RavenDB server, see TestDatabase.
+ */
+public class RequestBudgetIT {
+
+    private static final int PAGE_SIZE = 10;
+
+    private static RequestBudgets.Mode mode;
+
+    @BeforeClass
+    public static void failOverBudget() {
+        TestDatabase.store();
+        mode = RequestBudgets.getMode();
+        RequestBudgets.setMode(RequestBudgets.Mode.FAIL);
+    }
+
+    @AfterClass
+    public static void restoreMode() {
+        if (mode != null) {
+            RequestBudgets.setMode(mode);
+        }
+    }
+
+    @Test
+    public void testScreensWithinBudget() {
+        ViewListener.PatientViewListener patients =
+                PresenterMetrics.instrument(ViewListener.PatientViewListener.class, new PatientPresenter());
+        ViewListener.PatientVisitViewListener patientVisits =
+                PresenterMetrics.instrument(ViewListener.PatientVisitViewListener.class, new PatientVisitPresenter());
+        ViewListener.VisitsViewListener visits =
+                PresenterMetrics.instrument(ViewListener.VisitsViewListener.class, new VisitsPresenter());
+        ViewListener.DoctorViewListener doctors =
+                PresenterMetrics.instrument(ViewListener.DoctorViewListener.class, new DoctorPresenter());
+        ViewListener.ConditionViewListener conditions =
+                PresenterMetrics.instrument(ViewListener.ConditionViewListener.class, new ConditionPresenter());
+
+        // patients screen: two pages, a search and the editor
+        Pair<Collection<PatientListItem>, Integer> page = patients.getPatientsList(0, PAGE_SIZE, null, false);
+        List<PatientListItem> rows = new ArrayList<>(page.getLeft());
+        patients.getPatientsList(rows.size(), PAGE_SIZE,
+                PageCursor.next(rows, PatientListItem::getLastName, PatientListItem::getId), false);
+        patients.searchPatientsList(0, PAGE_SIZE, null, "jo", false);
+        patients.getRegionsList();
+
+        if (!rows.isEmpty()) {
+            String patientId = rows.get(0).getId();
+            patients.getPatientById(patientId);
+
+            // visit history screen and editor
+            patientVisits.getPatientWithVisits(patientId, null, true);
+            patientVisits.getVisitsList(patientId, "d", false);
+            patientVisits.getDoctorsAndConditions(PAGE_SIZE);
+            patientVisits.getLocationsList();
+        }
+
+        visits.getVisitsList(0, PAGE_SIZE, null, true);
+        visits.searchVisitsList(0, PAGE_SIZE, null, "d", true);
+
+        doctors.getDoctorsWithVisits();
+        doctors.getDepartments();
+
+        assertTrue(conditions.getConditionsList(0, PAGE_SIZE, null, null).getRight() >= 0);
+    }
+
+    @Test
+    public void testEditsWithinBudget() throws IOException {
+        ViewListener.PatientViewListener patients =
+                PresenterMetrics.instrument(ViewListener.PatientViewListener.class, new PatientPresenter());
+        ViewListener.PatientVisitViewListener patientVisits =
+                PresenterMetrics.instrument(ViewListener.PatientVisitViewListener.class, new PatientVisitPresenter());
+
+        // patient editor: added, then edited with a new picture
+        Patient patient = new Patient();
+        patient.setFirstName("Budget");
+        patient.setLastName("Patient");
+        patients.create(patient, null);
+
+        ProfilePicture picture = picture();
+
+        try {
+            patient.setEmail("budget@example.com");
+            patients.update(patient, picture);
+        } finally {
+            picture.delete();
+        }
+
+        Address address = new Address();
+        address.setLine("1 Budget street");
+        patients.saveAddress(patient.getId(), address);
+
+        // visit editor
+        Visit visit = new Visit();
+        visit.setDate(new Date());
+        visit.setDoctorName("Dr. Budget");
+        visit.setType("Outpatient Clinic");
+        visit.setvisitSummary("Budget");
+        patientVisits.save(patient.getId(), visit);
+
+        assertNotNull(visit.getId());
+        assertEquals(1, patientVisits.getVisitsList(patient.getId(), null, true).size());
+
+        // deleted along with its visit
+        patients.delete(patient.getId());
+
+        assertNull(patients.getPatientById(patient.getId()));
+
+        try (IDocumentSession session = TestDatabase.store().openSession()) {
+            assertNull(session.load(Visit.class, visit.getId()));
+        }
+
+        TestDatabase.waitForIndexing();
+        assertTrue(patientVisits.getVisitsList(patient.getId(), null, true).isEmpty());
+    }
+
+    private static ProfilePicture picture() throws IOException {
+        File file = File.createTempFile("profile_picture", ".png");
+        ImageIO.write(new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB), "png", file);
+
+        ProfilePicture picture = new ProfilePicture();
+        picture.setName("budget.png");
+        picture.setFile(file);
+        picture.setThumbnail(ProfilePicture.createThumbnail(file));
+        return picture;
+    }
+
+}
@@ -0,0 +1,28 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+import net.ravendb.demo.presenter.RequestBudget;
+import net.ravendb.demo.presenter.ViewListener;
+
+/**
+ * Every presenter operation declares a request budget. RequestBudgetIT
+ * checks that the screens stay within theirs.
+ */
+public class RequestBudgetTest {
+
+    @Test
+    public void testEveryOperationHasABudget() {
+        for (Class<?> listener : ViewListener.class.getDeclaredClasses()) {
+            for (Method method : listener.getDeclaredMethods()) {
+                assertNotNull(listener.getSimpleName() + "." + method.getName() + " has no request budget",
+                              method.getAnnotation(RequestBudget.class));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.ravendb.client.documents.BulkInsertOperation;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.index.Patients_List;
+import net.ravendb.demo.model.DTO.PageCursor;
+import net.ravendb.demo.model.DTO.PatientListItem;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.asset.Address;
+import net.ravendb.demo.presenter.PatientPresenter;
+
+/**
+ * Presenters open a session per operation, so what they hand out isn't
+ * tracked afterwards: paging through 10k patients retains no more than the
+ * last page, where a session living as long as the view keeps every patient
+ * it has seen in its identity map, and a later save doesn't send stale
+ * changes.
+ *
+ * Needs a RavenDB server, see TestDatabase.
+ */
+public class SessionFootprintIT {
+
+    private static final int PATIENTS = 10_000;
+    private static final int PAGE_SIZE = 10;
+    private static final String ID_PREFIX = "patients/footprint-";
+    // a tracked patient takes well over 400 bytes: the entity, its json and its snapshot
+    private static final long BASELINE_BYTES_PER_PATIENT = 400;
+    private static final int BASELINE_RATIO = 10;
+
+    private static IDocumentStore store;
+    private static PatientPresenter presenter;
+    private static String patientId;
+
+    @BeforeClass
+    public static void createPatients() {
+        store = TestDatabase.store();
+        presenter = new PatientPresenter();
+
+        try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+            for (int i = 0; i < PATIENTS; i++) {
+                Patient patient = new Patient();
+                patient.setFirstName("Footprint");
+                patient.setLastName(String.format("Patient %05d", i));
+                patient.setEmail("footprint" + i + "@example.com");
+                bulkInsert.store(patient, ID_PREFIX + i);
+            }
+        }
+
+        Patient patient = new Patient();
+        patient.setFirstName("Footprint");
+        patient.setLastName("Patient");
+        presenter.create(patient, null);
+        patientId = patient.getId();
+
+        TestDatabase.waitForIndexing();
+    }
+
+    @AfterClass
+    public static void deletePatients() {
+        if (patientId != null) {
+            presenter.delete(patientId);
+        }
+
+        TestDatabase.deleteByIdPrefix("Patients", ID_PREFIX);
+    }
+
+    @Test
+    public void testPagingRetainsNoPatients() {
+        long perOperation = retainedBySessionPerOperation();
+        long longLived = retainedByLongLivedSession();
+
+        // shows the measurement resolves what a tracking session keeps
+        assertTrue("long-lived session retained " + longLived + " bytes",
+                   longLived > PATIENTS * BASELINE_BYTES_PER_PATIENT);
+        assertTrue("session per operation retained " + perOperation + " bytes, long-lived " + longLived,
+                   perOperation * BASELINE_RATIO < longLived);
+    }
+
+    @Test
+    public void testLoadsAreNotTracked() {
+        Patient first = presenter.getPatientById(patientId);
+        Patient second = presenter.getPatientById(patientId);
+
+        // a shared session would hand out the same instance from its identity map
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testChangesAreNotSentByLaterOperations() {
+        Patient patient = presenter.getPatientById(patientId);
+        patient.setFirstName("Changed");
+
+        // saves in a session of its own, which doesn't know the patient loaded above
+        presenter.saveAddress(patientId, new Address());
+
+        assertEquals("Footprint", presenter.getPatientById(patientId).getFirstName());
+    }
+
+    // the patients grid, page after page: only the cursor and the last page are kept
+    private static long retainedBySessionPerOperation() {
+        List<PatientListItem> rows;
+        PageCursor cursor = null;
+        int offset = 0;
+        long before = 0;
+
+        do {
+            Pair<Collection<PatientListItem>, Integer> page =
+                    presenter.getPatientsList(offset, PAGE_SIZE, cursor, false);
+            rows = new ArrayList<>(page.getLeft());
+
+            if (offset == 0) {
+                before = retained();
+            }
+
+            cursor = PageCursor.next(rows, PatientListItem::getLastName, PatientListItem::getId);
+            offset += rows.size();
+        } while (!rows.isEmpty());
+
+        assertTrue(offset >= PATIENTS);
+        return retained() - before;
+    }
+
+    // the same pages read through a session kept for the lifetime of the view
+    private static long retainedByLongLivedSession() {
+        try (IDocumentSession session = store.openSession()) {
+            session.advanced().setMaxNumberOfRequestsPerSession(Integer.MAX_VALUE);
+            long before = retained();
+            int offset = 0;
+            List<Patient> patients;
+
+            do {
+                patients = session.query(Patient.class, Patients_List.class)
+                                  .orderBy("lastName")
+                                  .skip(offset)
+                                  .take(PAGE_SIZE)
+                                  .toList();
+                offset += patients.size();
+            } while (!patients.isEmpty());
+
+            assertTrue(offset >= PATIENTS);
+            long retained = retained() - before;
+
+            // keeps the session and its identity map reachable until measured
+            assertTrue(session.advanced().isLoaded(ID_PREFIX + 0));
+            return retained;
+        }
+    }
+
+    // the http cache of the client keeps query responses for both sides alike
+    private static long retained() {
+        store.getRequestExecutor().getCache().clear();
+        return Allocations.retained();
+    }
+
+}
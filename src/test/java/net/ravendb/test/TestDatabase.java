@@ -0,0 +1,92 @@
+package net.ravendb.test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assume;
+
+import net.ravendb.client.Parameters;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.operations.DatabaseStatistics;
+import net.ravendb.client.documents.operations.DeleteByQueryOperation;
+import net.ravendb.client.documents.operations.GetStatisticsOperation;
+import net.ravendb.client.documents.queries.IndexQuery;
+import net.ravendb.demo.presenter.RavenDBDocumentStore;
+
+/**
+ * The local RavenDB server for the *IT tests, run by the integrationTests
+ * profile, on a database of their own so the demo data is left alone. Call
+ * {@link #store()} first, from @BeforeClass: it points the application store
+ * at the test database, before anything else opens it, and skips the test
+ * class when no server is running.
+ */
+final class TestDatabase {
+
+    static final String NAME = "HospitalTest";
+
+    private static final long INDEXING_TIMEOUT_SECONDS = 60;
+
+    static {
+        System.setProperty("ravendb.database", NAME);
+    }
+
+    private TestDatabase() {}
+
+    static IDocumentStore store() {
+        IDocumentStore store;
+
+        try {
+            // creating the database and the indexes on first use fails without a server
+            store = RavenDBDocumentStore.getStore();
+        } catch (Throwable t) {
+            Assume.assumeNoException(t);
+            return null;
+        }
+
+        if (!NAME.equals(store.getDatabase())) {
+            throw new IllegalStateException("The store was opened on " + store.getDatabase() + " before the tests");
+        }
+
+        return store;
+    }
+
+    /**
+     * Waits until every index has caught up with the documents stored so far.
+     */
+    static void waitForIndexing() {
+        IDocumentStore store = store();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(INDEXING_TIMEOUT_SECONDS);
+
+        while (true) {
+            DatabaseStatistics statistics = store.maintenance().send(new GetStatisticsOperation());
+
+            if (Arrays.stream(statistics.getIndexes()).noneMatch(index -> index.isStale())) {
+                return;
+            }
+
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Indexes still stale after " + INDEXING_TIMEOUT_SECONDS + " s");
+            }
+
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Deletes the documents a test class created, by the prefix of their ids.
+     */
+    static void deleteByIdPrefix(String collection, String prefix) {
+        IndexQuery query = new IndexQuery("from " + collection + " where startsWith(id(), $prefix)");
+        Parameters parameters = new Parameters();
+        parameters.put("prefix", prefix);
+        query.setQueryParameters(parameters);
+
+        store().operations().sendAsync(new DeleteByQueryOperation(query)).waitForCompletion();
+    }
+
+}
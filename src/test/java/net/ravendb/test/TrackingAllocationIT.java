@@ -0,0 +1,94 @@
+package net.ravendb.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.ravendb.client.documents.BulkInsertOperation;
+import net.ravendb.client.documents.IDocumentStore;
+import net.ravendb.client.documents.session.IDocumentQuery;
+import net.ravendb.client.documents.session.IDocumentSession;
+import net.ravendb.demo.index.Patients_Search;
+import net.ravendb.demo.model.Patient;
+import net.ravendb.demo.model.Visit;
+
+/**
+ * Bytes allocated to read one grid page of patients with long visit
+ * histories from Patients_Search, untracked as ReadOnly.query reads and
+ * through a tracking session that snapshots the page and diffs it on
+ * saveChanges. Both sides run the same query, so only tracking differs.
+ *
+ * Needs a RavenDB server, see TestDatabase.
+ */
+public class TrackingAllocationIT {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int VISITS = 200;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+    private static final String FIRST_NAME = "Tracking";
+    private static final String ID_PREFIX = "patients/tracking-";
+
+    private static IDocumentStore store;
+
+    @BeforeClass
+    public static void createPatients() {
+        store = TestDatabase.store();
+
+        try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                Patient patient = new Patient();
+                patient.setFirstName(FIRST_NAME);
+                patient.setLastName("Patient " + i);
+
+                for (int j = 0; j < VISITS; j++) {
+                    Visit visit = new Visit();
+                    visit.setDate(new Date());
+                    visit.setDoctorName("Doctor " + j);
+                    visit.setvisitSummary("Summary of visit " + j);
+                    patient.getVisits().add(visit);
+                }
+
+                bulkInsert.store(patient, ID_PREFIX + i);
+            }
+        }
+
+        TestDatabase.waitForIndexing();
+    }
+
+    @AfterClass
+    public static void deletePatients() {
+        TestDatabase.deleteByIdPrefix("Patients", ID_PREFIX);
+    }
+
+    @Test
+    public void testReadOnlyPage() throws Exception {
+        long tracked = Allocations.perRun(WARMUP, ITERATIONS, () -> {
+            try (IDocumentSession session = store.openSession()) {
+                assertEquals(PAGE_SIZE, page(session).toList().size());
+                // what saveChanges does to find the changed entities
+                session.advanced().hasChanges();
+            }
+        });
+        long readOnly = Allocations.perRun(WARMUP, ITERATIONS, () -> {
+            try (IDocumentSession session = store.openSession()) {
+                assertEquals(PAGE_SIZE, page(session).noTracking().toList().size());
+            }
+        });
+
+        assertTrue("read-only " + readOnly + " bytes per page, tracked " + tracked, readOnly < tracked);
+    }
+
+    private static IDocumentQuery<Patient> page(IDocumentSession session) {
+        return session.query(Patient.class, Patients_Search.class)
+                      .search("firstName", FIRST_NAME)
+                      .take(PAGE_SIZE);
+    }
+
+}